@@ -28,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.sundsvall.cimdproxy.cimd.CIMDPacketDecoder;
 import se.sundsvall.cimdproxy.cimd.CIMDPacketEncoder;
+import se.sundsvall.cimdproxy.cimd.CIMDPacketView;
 import se.sundsvall.cimdproxy.cimd.Session;
 import se.sundsvall.cimdproxy.cimd.util.SessionUtil;
 
@@ -59,7 +60,8 @@ public class TestClient {
 						pipeline.addLast(new SimpleChannelInboundHandler<>() {
 							@Override
 							protected void channelRead0(final ChannelHandlerContext ctx, final Object msg) {
-								if (msg instanceof Packet packet) {
+								if (msg instanceof CIMDPacketView view) {
+									var packet = view.toPacket();
 									receivedPackets.add(packet);
 									if (packet.isPositiveResponse()) {
 										LOG.info("Message successfully sent - {} - {}", packet.getOperationCode(), sanitizeForLogging(packet.toString()));
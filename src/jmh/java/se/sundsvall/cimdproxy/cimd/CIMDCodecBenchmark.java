@@ -0,0 +1,99 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.PacketSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decodes and encodes realistic submit frames, with and without checksum, using both {@link PacketSerializer} and the
+ * Netty codec of the proxy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CIMDCodecBenchmark {
+
+	@Param
+	private SubmitFrame submitFrame;
+
+	@Param({
+		"true", "false"
+	})
+	private boolean useChecksum;
+
+	private Packet packet;
+	private byte[] frameBytes;
+	private ByteBuf frame;
+	private ByteBuf out;
+	private ByteArrayOutputStream outputStream;
+	private CIMDPacketDecoder decoder;
+
+	@Setup
+	public void setUp() {
+		packet = submitFrame.packet();
+		frameBytes = submitFrame.frame(useChecksum);
+		frame = Unpooled.wrappedBuffer(frameBytes);
+		out = PooledByteBufAllocator.DEFAULT.directBuffer(CIMDPacketEncoder.encodedLength(packet.getParameters(), useChecksum));
+		outputStream = new ByteArrayOutputStream(frameBytes.length);
+		decoder = new CIMDPacketDecoder(useChecksum);
+	}
+
+	@TearDown
+	public void tearDown() {
+		out.release();
+	}
+
+	@Benchmark
+	public Packet serializerDecode() throws IOException {
+		return PacketSerializer.deserializePacket(new ByteArrayInputStream(frameBytes), useChecksum);
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream serializerEncode() throws IOException {
+		outputStream.reset();
+		PacketSerializer.serializePacket(packet, null, useChecksum, outputStream);
+
+		return outputStream;
+	}
+
+	@Benchmark
+	public CIMDPacket decoderDecode() {
+		frame.readerIndex(0);
+
+		final var view = decoder.doDecode(frame);
+		try {
+			return new CIMDPacket(view);
+		} finally {
+			view.release();
+		}
+	}
+
+	@Benchmark
+	public ByteBuf encoderEncode() {
+		out.clear();
+		CIMDPacketEncoder.writePacket(packet.getOperationCode(), packet.getSequenceNumber(), packet.getParameters(), useChecksum, out);
+
+		return out;
+	}
+}
@@ -0,0 +1,70 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes ALIVE responses, both as a {@link Packet} and from the pre-encoded frame of {@link CIMDFixedResponse}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CIMDFixedResponseBenchmark {
+
+	@Param({
+		"true", "false"
+	})
+	private boolean useChecksum;
+
+	private ByteBuf out;
+	private int sequenceNumber;
+
+	@Setup
+	public void setUp() {
+		out = PooledByteBufAllocator.DEFAULT.directBuffer(16);
+	}
+
+	@TearDown
+	public void tearDown() {
+		out.release();
+	}
+
+	@Benchmark
+	public ByteBuf encodePacket() {
+		out.clear();
+		final var packet = new Packet(Packet.OP_ALIVE + 50, nextSequenceNumber());
+		CIMDPacketEncoder.writePacket(packet.getOperationCode(), packet.getSequenceNumber(), packet.getParameters(), useChecksum, out);
+
+		return out;
+	}
+
+	@Benchmark
+	public ByteBuf encodeFixedResponse() {
+		out.clear();
+		CIMDPacketEncoder.writeFixedResponse(CIMDFixedResponse.aliveResponse(nextSequenceNumber()), useChecksum, out);
+
+		return out;
+	}
+
+	private int nextSequenceNumber() {
+		sequenceNumber = (sequenceNumber + 2) % 256;
+		return sequenceNumber;
+	}
+}
@@ -0,0 +1,84 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.PacketSerializer;
+import com.googlecode.jcimd.Parameter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link CIMDPacketDecoder} against the stream based decoding path it replaced, i.e. wrapping the frame in
+ * a {@link ByteBufInputStream} and handing it to {@link PacketSerializer#deserializePacket}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CIMDPacketDecoderBenchmark {
+
+	private final CIMDPacketDecoder decoder = new CIMDPacketDecoder(true);
+
+	private ByteBuf frame;
+
+	@Setup
+	public void setUp() throws IOException {
+		final var packet = new Packet(Packet.OP_SUBMIT_MESSAGE, 1,
+			new Parameter(Parameter.DESTINATION_ADDRESS, "+46701234567"),
+			new Parameter(Parameter.DATA_CODING_SCHEME, 0),
+			new Parameter(Parameter.USER_DATA, "Your one-time password is 123456. It is valid for five minutes."));
+
+		final var outputStream = new ByteArrayOutputStream();
+		PacketSerializer.serializePacket(packet, null, true, outputStream);
+
+		frame = Unpooled.wrappedBuffer(outputStream.toByteArray());
+	}
+
+	@Benchmark
+	public Packet streamDecoder() throws IOException {
+		frame.readerIndex(0);
+
+		try (var inputStream = new ByteBufInputStream(frame.slice())) {
+			return PacketSerializer.deserializePacket(inputStream, true);
+		}
+	}
+
+	@Benchmark
+	public Packet byteBufDecoder() {
+		frame.readerIndex(0);
+
+		final var view = decoder.doDecode(frame);
+		try {
+			return view.toPacket();
+		} finally {
+			view.release();
+		}
+	}
+
+	@Benchmark
+	public CIMDPacket byteBufDecoderSubmitPath() {
+		frame.readerIndex(0);
+
+		final var view = decoder.doDecode(frame);
+		try {
+			return new CIMDPacket(view);
+		} finally {
+			view.release();
+		}
+	}
+}
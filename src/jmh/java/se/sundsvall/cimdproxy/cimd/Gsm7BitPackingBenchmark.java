@@ -0,0 +1,99 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.charset.Gsm7BitPacking;
+import com.googlecode.jcimd.charset.GsmCharsetProvider;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Packs and unpacks the septets of a full single part message (160 characters) and of a five part message (5 * 153
+ * characters), using the scalar and the vectorized {@link Gsm7BitPacking}, as well as encoding and decoding them using
+ * the "GSM" charset, which packs using the implementation selected for the JVM. Forks have the Vector API added, so
+ * compare the charset with the vectorized implementation turned off by passing
+ * {@code -jvmArgsAppend -Djcimd.gsm.vector=false}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class Gsm7BitPackingBenchmark {
+
+	private static final String TEXT = "Hej! Din tid hos tandläkaren är bokad till tisdag 14 maj kl. 10:15. "
+		+ "Avbokning senast 24h innan, annars debiteras en avgift. Mvh Folktandvården {ref: 4711} ";
+
+	@Param({
+		"160", "765"
+	})
+	private int length;
+
+	@Param({
+		"scalar", "vector"
+	})
+	private String implementation;
+
+	private Gsm7BitPacking packing;
+	private Charset charset;
+	private String text;
+	private int groups;
+	private byte[] septets;
+	private byte[] packed;
+	private byte[] unpacked;
+	private ByteBuffer encoded;
+
+	@Setup
+	public void setUp() throws CharacterCodingException {
+		packing = "vector".equals(implementation) ? Gsm7BitPacking.vector() : Gsm7BitPacking.scalar();
+		charset = new GsmCharsetProvider().charsetForName("GSM");
+		text = TEXT.repeat(length / TEXT.length() + 1).substring(0, length);
+
+		// The septets of the text, not counting any escapes, in whole groups
+		groups = (length + 7) / 8;
+		septets = new byte[8 * groups];
+		for (var i = 0; i < length; i++) {
+			septets[i] = (byte) (text.charAt(i) & 0x7F);
+		}
+		packed = new byte[7 * groups];
+		unpacked = new byte[8 * groups];
+		packing.pack(septets, 0, packed, 0, groups);
+
+		encoded = charset.newEncoder().encode(CharBuffer.wrap(text));
+	}
+
+	@Benchmark
+	public byte[] pack() {
+		packing.pack(septets, 0, packed, 0, groups);
+		return packed;
+	}
+
+	@Benchmark
+	public byte[] unpack() {
+		packing.unpack(packed, 0, unpacked, 0, groups);
+		return unpacked;
+	}
+
+	@Benchmark
+	public ByteBuffer charsetEncode() throws CharacterCodingException {
+		return charset.newEncoder().encode(CharBuffer.wrap(text));
+	}
+
+	@Benchmark
+	public CharBuffer charsetDecode() throws CharacterCodingException {
+		return charset.newDecoder().decode(encoded.duplicate());
+	}
+}
@@ -0,0 +1,57 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes a full single part message (160 characters) using the GSM charsets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GsmCharsetBenchmark {
+
+	private static final String TEXT = "Hej! Din tid hos tandläkaren är bokad till tisdag 14 maj kl. 10:15. "
+		+ "Avbokning senast 24h innan, annars debiteras en avgift. Mvh Folktandvården {ref: 4711}";
+
+	@Param({
+		"GSM", "GSM-8BIT"
+	})
+	private String charsetName;
+
+	private Charset charset;
+	private ByteBuffer encoded;
+
+	@Setup
+	public void setUp() throws CharacterCodingException {
+		charset = Charset.forName(charsetName);
+		encoded = charset.newEncoder().encode(CharBuffer.wrap(TEXT));
+	}
+
+	@Benchmark
+	public ByteBuffer encode() throws CharacterCodingException {
+		return charset.newEncoder().encode(CharBuffer.wrap(TEXT));
+	}
+
+	@Benchmark
+	public CharBuffer decode() throws CharacterCodingException {
+		return charset.newDecoder().decode(encoded.duplicate());
+	}
+}
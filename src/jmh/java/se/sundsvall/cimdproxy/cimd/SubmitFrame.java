@@ -0,0 +1,81 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.PacketSerializer;
+import com.googlecode.jcimd.Parameter;
+import com.googlecode.jcimd.TextMessageUserDataFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Realistic submit packets, as sent to the proxy by MG/OneGate.
+ */
+public enum SubmitFrame {
+
+	/** A one-time password, as plain GSM text. */
+	SHORT_GSM {
+
+		@Override
+		public Packet packet() {
+			return new Packet(Packet.OP_SUBMIT_MESSAGE, 1,
+				new Parameter(Parameter.DESTINATION_ADDRESS, "+46701234567"),
+				new Parameter(Parameter.DATA_CODING_SCHEME, 0),
+				new Parameter(Parameter.USER_DATA, "Your one-time password is 123456. It is valid for five minutes."));
+		}
+	},
+
+	/** The first part of a concatenated UCS-2 message, i.e. with a UDH and a full 140 bytes of user data. */
+	LONG_UCS2 {
+
+		@Override
+		public Packet packet() {
+			final var userData = TextMessageUserDataFactory.newInstance(LONG_UCS2_TEXT)[0];
+
+			return binaryPacket(userData.getHeader(), userData.getBinaryBody(), userData.getDataCodingScheme());
+		}
+	},
+
+	/** 8-bit binary data with a UDH, e.g. a port addressed message. */
+	BINARY_UDH {
+
+		@Override
+		public Packet packet() {
+			final var body = new byte[128];
+			for (var i = 0; i < body.length; i++) {
+				body[i] = (byte) (i * 31);
+			}
+
+			return binaryPacket(new byte[] {
+				0x06, 0x05, 0x04, 0x0B, (byte) 0x84, 0x23, (byte) 0xF0
+			}, body, 0x04);
+		}
+	};
+
+	static final String LONG_UCS2_TEXT = "Påminnelse: Din tid på vårdcentralen är imorgon kl. 09:30. "
+		+ "Välkommen! Вы можете отменить визит по телефону. Svara inte på detta meddelande, det går inte att besvara.";
+
+	public abstract Packet packet();
+
+	/**
+	 * Returns the packet serialized as a CIMD frame.
+	 */
+	public byte[] frame(final boolean useChecksum) {
+		try {
+			final var outputStream = new ByteArrayOutputStream();
+			PacketSerializer.serializePacket(packet(), null, useChecksum, outputStream);
+
+			return outputStream.toByteArray();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Packet binaryPacket(final byte[] header, final byte[] body, final int dataCodingScheme) {
+		return new Packet(Packet.OP_SUBMIT_MESSAGE, 1,
+			new Parameter(Parameter.DESTINATION_ADDRESS, "+46701234567"),
+			new Parameter(Parameter.DATA_CODING_SCHEME, dataCodingScheme),
+			new Parameter(Parameter.USER_DATA_HEADER, header),
+			new Parameter(Parameter.USER_DATA_BINARY, body));
+	}
+}
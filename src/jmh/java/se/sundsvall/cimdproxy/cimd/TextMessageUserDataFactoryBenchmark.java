@@ -0,0 +1,48 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.TextMessageUserDataFactory;
+import com.googlecode.jcimd.UserData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Splits and encodes text messages into user data, for short and long GSM messages and long UCS-2 messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextMessageUserDataFactoryBenchmark {
+
+	public enum Text {
+
+		SHORT_GSM("Your one-time password is 123456. It is valid for five minutes."),
+		LONG_GSM("Hej! Din tid hos tandläkaren är bokad till tisdag 14 maj kl. 10:15. ".repeat(6)),
+		LONG_UCS2(SubmitFrame.LONG_UCS2_TEXT.repeat(2));
+
+		private final String value;
+
+		Text(final String value) {
+			this.value = value;
+		}
+	}
+
+	@Param
+	private Text text;
+
+	@Benchmark
+	public UserData[] newInstance() {
+		return TextMessageUserDataFactory.newInstance(text.value);
+	}
+}
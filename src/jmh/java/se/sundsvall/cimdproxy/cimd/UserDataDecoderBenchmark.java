@@ -0,0 +1,86 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.charset.GsmCharsetProvider;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+
+/**
+ * Decodes the hex encoded user data of a full single part message (160 characters) per data coding scheme, both
+ * through the corresponding charset, as {@link CIMDPacket} used to for GSM 7-bit, and using {@link UserDataDecoder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDataDecoderBenchmark {
+
+	private static final String TEXT = "Hej! Din tid hos tandläkaren är bokad till tisdag 14 maj kl. 10:15. "
+		+ "Avbokning senast 24h innan, annars debiteras en avgift. Mvh Folktandvården {ref: 4711}";
+
+	public enum Coding {
+		GSM_7BIT(0x00, new GsmCharsetProvider().charsetForName("GSM")),
+		GSM_8BIT(0x04, new GsmCharsetProvider().charsetForName("GSM-8BIT")),
+		UCS2(0x08, UTF_16BE);
+
+		private final int dataCodingScheme;
+		private final Charset charset;
+
+		Coding(final int dataCodingScheme, final Charset charset) {
+			this.dataCodingScheme = dataCodingScheme;
+			this.charset = charset;
+		}
+	}
+
+	@Param
+	private Coding coding;
+
+	private DataCodingScheme dataCodingScheme;
+	private String hex;
+	private ByteBuf hexBuffer;
+
+	@Setup
+	public void setUp() throws CharacterCodingException {
+		final var encoded = coding.charset.newEncoder().encode(CharBuffer.wrap(TEXT));
+		final var bytes = new byte[encoded.remaining()];
+		encoded.get(bytes);
+
+		dataCodingScheme = DataCodingScheme.of(coding.dataCodingScheme);
+		hex = Hex.encodeHexString(bytes, false);
+		hexBuffer = Unpooled.copiedBuffer(hex, ISO_8859_1);
+	}
+
+	@Benchmark
+	public String charsetDecode() throws DecoderException, CharacterCodingException {
+		final var decoded = coding.charset.newDecoder().decode(ByteBuffer.wrap(Hex.decodeHex(hex.toCharArray())));
+
+		return decoded.toString();
+	}
+
+	@Benchmark
+	public String fusedDecode() {
+		return UserDataDecoder.decode(dataCodingScheme, hexBuffer);
+	}
+}
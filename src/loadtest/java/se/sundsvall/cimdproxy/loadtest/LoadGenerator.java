@@ -0,0 +1,104 @@
+package se.sundsvall.cimdproxy.loadtest;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.cimdproxy.cimd.CIMDPacketDecoder;
+import se.sundsvall.cimdproxy.cimd.CIMDPacketEncoder;
+
+/**
+ * Drives load against a CIMD server over a number of sessions, using the same codec as the proxy itself.
+ */
+final class LoadGenerator implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LoadGenerator.class);
+
+	private final LoadTestOptions options;
+	private final LoadStatistics statistics = new LoadStatistics();
+	private final MultiThreadIoEventLoopGroup eventLoopGroup = new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
+	private final List<Channel> channels = new ArrayList<>();
+	private final List<LoadSession> sessions = new ArrayList<>();
+
+	LoadGenerator(final LoadTestOptions options) {
+		this.options = options;
+	}
+
+	/**
+	 * Runs the load test, returning a report of the results.
+	 */
+	String run() throws InterruptedException {
+		connect();
+
+		LOG.info("Running {} load over {} session(s), warming up for {} s", options.mode(), options.sessions(), options.warmup().toSeconds());
+		sessions.forEach(LoadSession::start);
+		Thread.sleep(options.warmup());
+
+		statistics.startRecording();
+		final var seconds = options.duration().toSeconds();
+		for (var second = 1; second <= seconds; second++) {
+			Thread.sleep(TimeUnit.SECONDS.toMillis(1));
+			final var interval = statistics.interval();
+			LOG.info("{}/{} s: {} answered, p99 {} ms", second, seconds, interval.getTotalCount(),
+				interval.getValueAtPercentile(99) / 1000.0);
+		}
+		statistics.stopRecording();
+
+		sessions.forEach(LoadSession::stop);
+
+		return statistics.report();
+	}
+
+	/**
+	 * Returns the number of submits answered as successful, including those of the warmup.
+	 */
+	long accepted() {
+		return statistics.accepted();
+	}
+
+	private void connect() throws InterruptedException {
+		final var bootstrap = new Bootstrap()
+			.group(eventLoopGroup)
+			.channel(NioSocketChannel.class)
+			.option(ChannelOption.TCP_NODELAY, true);
+
+		for (var i = 0; i < options.sessions(); i++) {
+			final var session = new LoadSession(options, statistics);
+			sessions.add(session);
+
+			channels.add(bootstrap
+				.handler(new ChannelInitializer<SocketChannel>() {
+
+					@Override
+					protected void initChannel(final SocketChannel channel) {
+						channel.pipeline()
+							.addLast(new CIMDPacketDecoder(options.useChecksum()))
+							.addLast(new CIMDPacketEncoder(options.useChecksum()))
+							.addLast(session);
+					}
+				})
+				.connect(options.host(), options.port())
+				.sync()
+				.channel());
+		}
+
+		CompletableFuture.allOf(sessions.stream().map(LoadSession::loggedIn).toArray(CompletableFuture[]::new)).join();
+		LOG.info("{} session(s) logged in", sessions.size());
+	}
+
+	@Override
+	public void close() {
+		channels.forEach(Channel::close);
+		eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS).syncUninterruptibly();
+	}
+}
@@ -0,0 +1,155 @@
+package se.sundsvall.cimdproxy.loadtest;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.Parameter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import se.sundsvall.cimdproxy.cimd.CIMDPacketView;
+
+/**
+ * A single client session of a load test, logging in and then sending submits either at a fixed rate or keeping a
+ * fixed number of them in flight.
+ * <p>
+ * All state is confined to the event loop of the channel.
+ */
+final class LoadSession extends SimpleChannelInboundHandler<CIMDPacketView> {
+
+	private final LoadTestOptions options;
+	private final LoadStatistics statistics;
+	private final CompletableFuture<Void> loggedIn = new CompletableFuture<>();
+
+	// Applications use odd sequence numbers, up to 255, and each sequence number can only be in flight once
+	private final boolean[] inFlight = new boolean[256];
+	// Time at which the submit using the sequence number was meant to be sent
+	private final long[] sentAt = new long[256];
+	private int nextSequenceNumber = 1;
+
+	private ChannelHandlerContext ctx;
+	private ScheduledFuture<?> rateTask;
+	private boolean running;
+
+	LoadSession(final LoadTestOptions options, final LoadStatistics statistics) {
+		this.options = options;
+		this.statistics = statistics;
+	}
+
+	CompletableFuture<Void> loggedIn() {
+		return loggedIn;
+	}
+
+	void start() {
+		ctx.executor().execute(() -> {
+			running = true;
+
+			if (options.mode() == LoadTestOptions.Mode.CLOSED) {
+				for (var i = 0; i < options.concurrency(); i++) {
+					submit(System.nanoTime());
+				}
+			} else {
+				// Latencies are measured from when each submit was meant to be sent, so that a stalled
+				// session doesn't hide the delays it causes (coordinated omission)
+				final var periodNanos = TimeUnit.SECONDS.toNanos(options.sessions()) / options.rate();
+				final var startedAt = System.nanoTime();
+				final var ticks = new long[1];
+				rateTask = ctx.executor().scheduleAtFixedRate(() -> {
+					final var now = System.nanoTime();
+					while (startedAt + ticks[0] * periodNanos <= now) {
+						submit(startedAt + ticks[0]++ * periodNanos);
+					}
+				}, 0, Math.max(periodNanos, TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+			}
+		});
+	}
+
+	void stop() {
+		ctx.executor().execute(() -> {
+			running = false;
+			if (rateTask != null) {
+				rateTask.cancel(false);
+			}
+		});
+	}
+
+	@Override
+	public void channelActive(final ChannelHandlerContext ctx) {
+		this.ctx = ctx;
+
+		ctx.writeAndFlush(new Packet(Packet.OP_LOGIN, nextSequenceNumber(),
+			new Parameter(Parameter.USER_IDENTITY, "loadtest"),
+			new Parameter(Parameter.PASSWORD, "loadtest")));
+		ctx.fireChannelActive();
+	}
+
+	@Override
+	protected void channelRead0(final ChannelHandlerContext ctx, final CIMDPacketView response) {
+		switch (response.getOperationCode()) {
+			case Packet.OP_LOGIN + 50 -> loggedIn.complete(null);
+			case Packet.OP_SUBMIT_MESSAGE + 50 -> submitAnswered(response);
+			default -> {
+				// Ignore anything else
+			}
+		}
+	}
+
+	@Override
+	public void channelInactive(final ChannelHandlerContext ctx) {
+		loggedIn.completeExceptionally(new IllegalStateException("Session closed before logging in"));
+		ctx.fireChannelInactive();
+	}
+
+	private void submitAnswered(final CIMDPacketView response) {
+		final var sequenceNumber = response.getSequenceNumber();
+		if (sequenceNumber >= inFlight.length || !inFlight[sequenceNumber]) {
+			return;
+		}
+		inFlight[sequenceNumber] = false;
+
+		final var latency = System.nanoTime() - sentAt[sequenceNumber];
+		final var errorCode = response.getValue(Parameter.ERROR_CODE);
+		if (errorCode == null) {
+			statistics.succeeded(latency);
+		} else {
+			statistics.failed(Integer.parseInt(errorCode), latency);
+		}
+
+		if (running && options.mode() == LoadTestOptions.Mode.CLOSED) {
+			submit(System.nanoTime());
+		}
+	}
+
+	private void submit(final long intendedAt) {
+		final var sequenceNumber = nextFreeSequenceNumber();
+		if (sequenceNumber < 0) {
+			statistics.unsent();
+			return;
+		}
+		inFlight[sequenceNumber] = true;
+		sentAt[sequenceNumber] = intendedAt;
+
+		ctx.writeAndFlush(new Packet(Packet.OP_SUBMIT_MESSAGE, sequenceNumber,
+			new Parameter(Parameter.DESTINATION_ADDRESS, "+46701234567"),
+			new Parameter(Parameter.DATA_CODING_SCHEME, 0),
+			new Parameter(Parameter.USER_DATA, options.message())));
+	}
+
+	private int nextFreeSequenceNumber() {
+		for (var i = 0; i < 128; i++) {
+			final var sequenceNumber = nextSequenceNumber();
+			if (!inFlight[sequenceNumber]) {
+				return sequenceNumber;
+			}
+		}
+
+		return -1;
+	}
+
+	private int nextSequenceNumber() {
+		final var sequenceNumber = nextSequenceNumber;
+		nextSequenceNumber = (nextSequenceNumber + 2) & 0xFF;
+
+		return sequenceNumber;
+	}
+}
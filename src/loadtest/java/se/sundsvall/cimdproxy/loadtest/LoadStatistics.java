@@ -0,0 +1,103 @@
+package se.sundsvall.cimdproxy.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and outcomes of the submits of a load test, recorded from any number of threads.
+ * <p>
+ * Nothing is recorded until {@link #startRecording()} is called, so that a warmup period can be left out.
+ */
+final class LoadStatistics {
+
+	private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private final Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+	private final Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+	private final LongAdder succeeded = new LongAdder();
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder unsent = new LongAdder();
+	private final Map<Integer, LongAdder> failed = new ConcurrentHashMap<>();
+
+	private volatile boolean recording;
+	private long recordingStartedAt;
+	private long recordingStoppedAt;
+
+	void startRecording() {
+		recorder.reset();
+		recordingStartedAt = System.nanoTime();
+		recording = true;
+	}
+
+	void stopRecording() {
+		recording = false;
+		recordingStoppedAt = System.nanoTime();
+		total.add(recorder.getIntervalHistogram());
+	}
+
+	void succeeded(final long latencyNanos) {
+		accepted.increment();
+		if (recording) {
+			succeeded.increment();
+			recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY_MICROS));
+		}
+	}
+
+	void failed(final int errorCode, final long latencyNanos) {
+		if (recording) {
+			failed.computeIfAbsent(errorCode, code -> new LongAdder()).increment();
+			recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY_MICROS));
+		}
+	}
+
+	/**
+	 * Records a submit that could not be sent at all, since the session had no free sequence numbers.
+	 */
+	void unsent() {
+		if (recording) {
+			unsent.increment();
+		}
+	}
+
+	/**
+	 * Returns the number of submits answered as successful, including those answered outside of the recording.
+	 */
+	long accepted() {
+		return accepted.sum();
+	}
+
+	/**
+	 * Returns the latencies recorded since the last call, adding them to the total.
+	 */
+	Histogram interval() {
+		final var interval = recorder.getIntervalHistogram();
+		total.add(interval);
+
+		return interval;
+	}
+
+	String report() {
+		final var seconds = (recordingStoppedAt - recordingStartedAt) / 1e9;
+		final var answered = total.getTotalCount();
+
+		final var report = new StringBuilder()
+			.append(String.format("Duration:   %.1f s%n", seconds))
+			.append(String.format("Answered:   %d (%.1f/s)%n", answered, answered / seconds))
+			.append(String.format("Succeeded:  %d%n", succeeded.sum()))
+			.append(String.format("Failed:     %s%n", new TreeMap<>(failed)))
+			.append(String.format("Unsent:     %d%n", unsent.sum()))
+			.append("Latency (ms):\n");
+		for (final var percentile : new double[] {
+			50, 90, 99, 99.9, 99.99
+		}) {
+			report.append(String.format("  p%-6s   %.3f%n", percentile, total.getValueAtPercentile(percentile) / 1000.0));
+		}
+
+		return report.append(String.format("  max       %.3f%n", total.getMaxValue() / 1000.0)).toString();
+	}
+}
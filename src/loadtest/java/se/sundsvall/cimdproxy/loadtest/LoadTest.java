@@ -0,0 +1,74 @@
+package se.sundsvall.cimdproxy.loadtest;
+
+import java.util.HashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import se.sundsvall.cimdproxy.Application;
+
+/**
+ * Runs a load test against the proxy, either against an already running proxy or against one started in-process,
+ * wired to a stub SmsSender.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--sessions=10 --mode=closed ..."}, see
+ * {@link LoadTestOptions} for the available options.
+ */
+public final class LoadTest {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+	private LoadTest() {}
+
+	public static void main(final String... args) throws Exception {
+		final var options = LoadTestOptions.parse(args);
+
+		if (!options.embedded()) {
+			run(options);
+			return;
+		}
+
+		try (var stub = new StubSmsSender(options.stubLatency())) {
+			final var properties = new HashMap<String, Object>();
+			properties.put("cimd.port", options.port());
+			properties.put("cimd.use-cimd-checksum", options.useChecksum());
+			// Logging every message would otherwise be what's measured
+			properties.put("cimd.logging.mode", "summary");
+			properties.put("integration.sms-sender.base-url", stub.baseUrl() + "/sms-sender");
+			properties.put("integration.sms-sender.municipality-id", "2281");
+			properties.put("integration.sms-sender.sms.from", "LoadTest");
+			properties.put("integration.sms-sender.oauth2.token-url", stub.baseUrl() + "/token");
+			properties.put("integration.sms-sender.oauth2.client-id", "loadtest");
+			properties.put("integration.sms-sender.oauth2.client-secret", "loadtest");
+
+			final long accepted;
+			try (var ignored = new SpringApplicationBuilder(Application.class).properties(properties).run()) {
+				accepted = run(options);
+			}
+
+			verify(accepted, stub.requests());
+		}
+	}
+
+	private static long run(final LoadTestOptions options) throws InterruptedException {
+		try (var generator = new LoadGenerator(options)) {
+			LOG.info("Load test results:\n{}", generator.run());
+			return generator.accepted();
+		}
+	}
+
+	/**
+	 * Checks that every submit the proxy accepted reached the stub SmsSender, so that a proxy failing to forward submits
+	 * can't pass as a fast one.
+	 */
+	private static void verify(final long accepted, final long received) {
+		if (received < accepted) {
+			throw new IllegalStateException("Stub SmsSender received " + received + " request(s), but " + accepted + " submit(s) were accepted");
+		}
+		if (received > accepted) {
+			// Answers still on their way when the sessions were closed are never counted as accepted
+			LOG.warn("Stub SmsSender received {} request(s), but only {} submit(s) were accepted", received, accepted);
+		} else {
+			LOG.info("Stub SmsSender received {} request(s), one for each accepted submit", received);
+		}
+	}
+}
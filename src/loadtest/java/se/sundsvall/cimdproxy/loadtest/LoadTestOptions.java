@@ -0,0 +1,74 @@
+package se.sundsvall.cimdproxy.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+
+/**
+ * Options of a load test, given as {@code --name=value} arguments.
+ */
+record LoadTestOptions(
+
+	String host,
+
+	int port,
+
+	// Whether to start the proxy, wired to a stub SmsSender, in-process
+	boolean embedded,
+
+	Duration stubLatency,
+
+	int sessions,
+
+	Mode mode,
+
+	// Submits per second, over all sessions, in rate mode
+	int rate,
+
+	// Submits in flight per session, in closed-loop mode
+	int concurrency,
+
+	Duration warmup,
+
+	Duration duration,
+
+	boolean useChecksum,
+
+	String message) {
+
+	enum Mode {
+		/** Submits are sent at a fixed rate, regardless of how fast they are answered. */
+		RATE,
+		/** Each session keeps a fixed number of submits in flight, sending a new one as soon as one is answered. */
+		CLOSED
+	}
+
+	static LoadTestOptions parse(final String... args) {
+		final var values = new HashMap<String, String>();
+		for (final var arg : args) {
+			if (!arg.startsWith("--") || !arg.contains("=")) {
+				throw new IllegalArgumentException("Expected --name=value, but got " + arg);
+			}
+			values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		}
+
+		final var options = new LoadTestOptions(
+			values.getOrDefault("host", "localhost"),
+			Integer.parseInt(values.getOrDefault("port", "9971")),
+			Boolean.parseBoolean(values.getOrDefault("embedded", "true")),
+			Duration.ofMillis(Long.parseLong(values.getOrDefault("stub-latency-ms", "20"))),
+			Integer.parseInt(values.getOrDefault("sessions", "10")),
+			Mode.valueOf(values.getOrDefault("mode", "closed").toUpperCase()),
+			Integer.parseInt(values.getOrDefault("rate", "1000")),
+			Integer.parseInt(values.getOrDefault("concurrency", "8")),
+			Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup-seconds", "10"))),
+			Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration-seconds", "30"))),
+			Boolean.parseBoolean(values.getOrDefault("use-checksum", "true")),
+			values.getOrDefault("message", "Your one-time password is 123456. It is valid for five minutes."));
+
+		if (options.sessions() <= 0 || options.rate() <= 0 || options.concurrency() <= 0) {
+			throw new IllegalArgumentException("sessions, rate and concurrency must be positive");
+		}
+
+		return options;
+	}
+}
@@ -0,0 +1,75 @@
+package se.sundsvall.cimdproxy.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * In-process stand-in for SmsSender and its OAuth2 token endpoint, answering every SMS as sent after a configurable
+ * latency.
+ */
+final class StubSmsSender implements AutoCloseable {
+
+	private static final byte[] TOKEN_RESPONSE = """
+		{"access_token": "0000000000000000AAAAAAAAAAAAAAAA", "token_type": "bearer", "scope": "create", "expires_in": 3600}
+		""".getBytes(UTF_8);
+	private static final byte[] SMS_RESPONSE = """
+		{"sent": true}
+		""".getBytes(UTF_8);
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Duration latency;
+	private final LongAdder requests = new LongAdder();
+
+	StubSmsSender(final Duration latency) throws IOException {
+		this.latency = latency;
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(executor);
+		server.createContext("/token", exchange -> respond(exchange, TOKEN_RESPONSE));
+		server.createContext("/sms-sender", this::sendSms);
+		server.start();
+	}
+
+	String baseUrl() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	long requests() {
+		return requests.sum();
+	}
+
+	private void sendSms(final HttpExchange exchange) throws IOException {
+		requests.increment();
+		try {
+			Thread.sleep(latency);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		respond(exchange, SMS_RESPONSE);
+	}
+
+	private static void respond(final HttpExchange exchange, final byte[] body) throws IOException {
+		try (exchange) {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.close();
+	}
+}
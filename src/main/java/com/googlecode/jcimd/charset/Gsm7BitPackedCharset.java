@@ -27,13 +27,16 @@ import java.nio.charset.CoderResult;
  */
 public class Gsm7BitPackedCharset extends Charset {
 
+	// Whole groups of eight septets are packed and unpacked in bulk, if vectorized
+	private static final Gsm7BitPacking PACKING = Gsm7BitPacking.getInstance();
+
 	private final char[] byteToChar;
 	private final char[] byteToEscapedChar;
-	private final int[] charToByte;
+	private final GsmCharacterTable charToByte;
 
 	protected Gsm7BitPackedCharset(
 		String canonicalName, String[] aliases,
-		char[] byteToChar, int[] charToByte, char[] byteToEscapedChar) {
+		char[] byteToChar, GsmCharacterTable charToByte, char[] byteToEscapedChar) {
 		super(canonicalName, aliases);
 		this.byteToChar = byteToChar;
 		this.charToByte = charToByte;
@@ -59,6 +62,7 @@ public class Gsm7BitPackedCharset extends Charset {
 
 		private int data = 0;
 		private int nBits = 0;
+		private byte[] septets = new byte[0];
 
 		protected Encoder7Bit(Charset charset) {
 			// 7 bits for unescaped characters
@@ -70,12 +74,35 @@ public class Gsm7BitPackedCharset extends Charset {
 
 		@Override
 		protected CoderResult encodeLoop(CharBuffer in, ByteBuffer out) {
-			int remaining = in.remaining();
-			while (remaining > 0) {
-				char ch = in.get();
-				encodeCharacter(ch, out);
-				remaining--;
+			if (PACKING.isVectorized() && nBits == 0 && out.hasArray()) {
+				encodeBulk(in, out);
 			}
+			while (in.hasRemaining()) {
+				if (encodeCharacter(in.get(), out).isOverflow()) {
+					// Leave the character to be encoded once there is room for it
+					in.position(in.position() - 1);
+					return CoderResult.OVERFLOW;
+				}
+			}
+			return encodeLastBits(out);
+		}
+
+		@Override
+		protected CoderResult implFlush(ByteBuffer out) {
+			// The last bits are left for flushing if there was no room for them when encoding
+			return encodeLastBits(out);
+		}
+
+		@Override
+		protected void implReset() {
+			data = 0;
+			nBits = 0;
+		}
+
+		/**
+		 * Puts the bits not yet making up a whole byte, if any.
+		 */
+		private CoderResult encodeLastBits(ByteBuffer out) {
 			if (nBits > 0) {
 				if (out.remaining() < 1) {
 					return CoderResult.OVERFLOW;
@@ -87,27 +114,70 @@ public class Gsm7BitPackedCharset extends Charset {
 				} else {
 					out.put((byte) (data & 0xFF));
 				}
+				data = 0;
+				nBits = 0;
 			}
 			return CoderResult.UNDERFLOW;
 		}
 
+		/**
+		 * Maps as many characters to septets as there is room for in out once packed, and packs the whole groups of
+		 * them. The septets left over, fewer than a group, are put one at a time, leaving any last bits of them in data.
+		 * Characters that don't fit are left in in.
+		 */
+		private void encodeBulk(CharBuffer in, ByteBuffer out) {
+			int maxSeptets = 8 * (out.remaining() / 7);
+			int size = Math.min(maxSeptets, 2 * in.remaining());
+			if (septets.length < size) {
+				septets = new byte[size];
+			}
+			int n = 0;
+			while (in.hasRemaining()) {
+				// If a character does not map to a GSM character, it is replaced with a '?'
+				short value = charToByte.getOrReplacement(in.get());
+				boolean escaped = GsmCharacterTable.isEscaped(value);
+				if (n + (escaped ? 2 : 1) > maxSeptets) {
+					in.position(in.position() - 1);
+					break;
+				}
+				if (escaped) {
+					septets[n++] = GsmCharsetProvider.ESCAPE;
+				}
+				septets[n++] = (byte) GsmCharacterTable.septet(value);
+			}
+
+			int groups = n / 8;
+			PACKING.pack(septets, 0, out.array(), out.arrayOffset() + out.position(), groups);
+			out.position(out.position() + 7 * groups);
+			// Fewer septets than a group were left over only if there is room for another group
+			for (int i = 8 * groups; i < n; i++) {
+				data |= (septets[i] << nBits);
+				nBits += 7;
+				while (nBits >= 8) {
+					out.put((byte) (data & 0xFF));
+					data >>>= 8;
+					nBits -= 8;
+				}
+			}
+		}
+
+		/**
+		 * Encodes a character, unless there is no room in out for the bytes it completes.
+		 */
 		private CoderResult encodeCharacter(char ch, ByteBuffer out) {
-			int b = charToByte[ch];
-			if (b == GsmCharsetProvider.NO_GSM_BYTE) {
-				// If ch does not map to a GSM character, replace with a '?'
-				b = '?';
+			// If ch does not map to a GSM character, replace with a '?'
+			short value = charToByte.getOrReplacement(ch);
+			boolean escaped = GsmCharacterTable.isEscaped(value);
+			if (out.remaining() < (nBits + (escaped ? 14 : 7)) / 8) {
+				return CoderResult.OVERFLOW;
 			}
-			byte highByte = (byte) ((b >> 8) & 0xFF);
-			if (highByte > 0) {
-				data |= (highByte << nBits);
+			if (escaped) {
+				data |= (GsmCharsetProvider.ESCAPE << nBits);
 				nBits += 7;
 			}
-			data |= ((b & 0xFF) << nBits);
+			data |= (GsmCharacterTable.septet(value) << nBits);
 			nBits += 7;
 			while (nBits >= 8) {
-				if (out.remaining() < 1) {
-					return CoderResult.OVERFLOW;
-				}
 				out.put((byte) (data & 0xFF));
 				data >>>= 8;
 				nBits -= 8;
@@ -120,14 +190,24 @@ public class Gsm7BitPackedCharset extends Charset {
 
 		private int data = 0;
 		private int nBits = 0;
+		private byte[] septets = new byte[0];
 
 		protected Decoder7Bit(Charset charset) {
 			super(charset, 8 / 7f, 2f);
 		}
 
+		@Override
+		protected void implReset() {
+			data = 0;
+			nBits = 0;
+		}
+
 		@Override
 		protected CoderResult decodeLoop(ByteBuffer in, CharBuffer out) {
 			boolean escaped = false;
+			if (PACKING.isVectorized() && nBits == 0 && in.hasArray()) {
+				escaped = decodeBulk(in, out);
+			}
 			int remaining = in.remaining();
 			while (remaining > 0) {
 				if (out.remaining() < 1) {
@@ -163,6 +243,43 @@ public class Gsm7BitPackedCharset extends Charset {
 			return CoderResult.UNDERFLOW;
 		}
 
+		/**
+		 * Unpacks as many whole groups of seven bytes as there is room for in out, and maps the septets to characters.
+		 * Eight septets never make more than eight characters, as an escape makes none.
+		 *
+		 * @return whether the last septet unpacked is an escape
+		 */
+		private boolean decodeBulk(ByteBuffer in, CharBuffer out) {
+			int groups = Math.min(in.remaining() / 7, out.remaining() / 8);
+			int n = 8 * groups;
+			if (septets.length < n) {
+				septets = new byte[n];
+			}
+			PACKING.unpack(in.array(), in.arrayOffset() + in.position(), septets, 0, groups);
+			in.position(in.position() + 7 * groups);
+
+			boolean escaped = false;
+			for (int j = 0; j < n; j++) {
+				int i = septets[j];
+				if (i == GsmCharsetProvider.ESCAPE) {
+					escaped = true;
+				} else if (escaped) {
+					char escapedChar = byteToEscapedChar[i];
+					if (escapedChar != GsmCharsetProvider.NO_GSM_BYTE) {
+						out.put(escapedChar);
+					} else {
+						// If invalid escape sequence use SPACE
+						out.put(' ');
+						out.put(byteToChar[i]);
+					}
+					escaped = false;
+				} else {
+					out.put(byteToChar[i]);
+				}
+			}
+			return escaped;
+		}
+
 		@Override
 		protected CoderResult implFlush(CharBuffer out) {
 			int pos = out.position();
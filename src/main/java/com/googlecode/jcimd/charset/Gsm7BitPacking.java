@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.googlecode.jcimd.charset;
+
+/**
+ * Packs septets into octets, and unpacks them again, in groups of eight septets to seven octets.
+ * <p>
+ * The implementation in use is selected once, at class initialization. It is vectorized, using the incubating Vector
+ * API, if the {@code jdk.incubator.vector} module is present (i.e. the JVM is started with
+ * {@code --add-modules=jdk.incubator.vector}) and the platform has vectors of at least 128 bits, unless the
+ * {@value #VECTOR_PROPERTY} system property is {@code false}. Otherwise it is scalar.
+ */
+public abstract class Gsm7BitPacking {
+
+	/** System property turning the vectorized implementation off, when set to {@code false}. */
+	public static final String VECTOR_PROPERTY = "jcimd.gsm.vector";
+
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+	private static final Gsm7BitPacking SCALAR = new ScalarGsm7BitPacking();
+	private static final Gsm7BitPacking INSTANCE = isVectorAvailable()
+		&& !"false".equalsIgnoreCase(System.getProperty(VECTOR_PROPERTY)) ? vector() : SCALAR;
+
+	/**
+	 * @return the implementation selected for this JVM
+	 */
+	public static Gsm7BitPacking getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return the scalar implementation
+	 */
+	public static Gsm7BitPacking scalar() {
+		return SCALAR;
+	}
+
+	/**
+	 * @return the vectorized implementation
+	 * @throws UnsupportedOperationException if the Vector API isn't available
+	 */
+	public static Gsm7BitPacking vector() {
+		if (!isVectorAvailable()) {
+			throw new UnsupportedOperationException("Vector API isn't available, start the JVM with --add-modules=" + VECTOR_MODULE);
+		}
+		return VectorHolder.INSTANCE;
+	}
+
+	/**
+	 * @return whether the vectorized implementation can be used
+	 */
+	public static boolean isVectorAvailable() {
+		// The vectorized implementation must not even be loaded unless the module is present
+		return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent() && VectorGsm7BitPacking.isSupported();
+	}
+
+	/**
+	 * @return whether this implementation is vectorized
+	 */
+	public abstract boolean isVectorized();
+
+	/**
+	 * Packs groups of eight septets into seven octets each.
+	 *
+	 * @param src       the septets, one per byte, with the high-order bit clear
+	 * @param srcOffset offset of the first septet
+	 * @param dst       the octets
+	 * @param dstOffset offset of the first octet
+	 * @param groups    the number of groups, i.e. 8 * groups septets are packed into 7 * groups octets
+	 */
+	public abstract void pack(byte[] src, int srcOffset, byte[] dst, int dstOffset, int groups);
+
+	/**
+	 * Unpacks groups of seven octets into eight septets each.
+	 *
+	 * @param src       the octets
+	 * @param srcOffset offset of the first octet
+	 * @param dst       the septets, one per byte
+	 * @param dstOffset offset of the first septet
+	 * @param groups    the number of groups, i.e. 7 * groups octets are unpacked into 8 * groups septets
+	 */
+	public abstract void unpack(byte[] src, int srcOffset, byte[] dst, int dstOffset, int groups);
+
+	private static final class VectorHolder {
+
+		private static final Gsm7BitPacking INSTANCE = new VectorGsm7BitPacking(SCALAR);
+	}
+}
@@ -29,11 +29,11 @@ public class Gsm8BitUnpackedCharset extends Charset {
 
 	private final char[] byteToChar;
 	private final char[] byteToEscapedChar;
-	private final int[] charToByte;
+	private final GsmCharacterTable charToByte;
 
 	protected Gsm8BitUnpackedCharset(
 		String canonicalName, String[] aliases,
-		char[] byteToChar, int[] charToByte, char[] byteToEscapedChar) {
+		char[] byteToChar, GsmCharacterTable charToByte, char[] byteToEscapedChar) {
 		super(canonicalName, aliases);
 		this.byteToChar = byteToChar;
 		this.charToByte = charToByte;
@@ -69,16 +69,12 @@ public class Gsm8BitUnpackedCharset extends Charset {
 					return CoderResult.OVERFLOW;
 				}
 				char ch = in.get();
-				int b = charToByte[ch];
-				if (b == GsmCharsetProvider.NO_GSM_BYTE) {
-					// If ch does not map to a GSM character, replace with a '?'
-					b = '?';
+				// If ch does not map to a GSM character, replace with a '?'
+				short value = charToByte.getOrReplacement(ch);
+				if (GsmCharacterTable.isEscaped(value)) {
+					out.put((byte) GsmCharsetProvider.ESCAPE);
 				}
-				byte highByte = (byte) ((b >> 8) & 0xFF);
-				if (highByte > 0) {
-					out.put(highByte);
-				}
-				out.put((byte) (b & 0xFF));
+				out.put((byte) GsmCharacterTable.septet(value));
 				remaining--;
 			}
 			return CoderResult.UNDERFLOW;
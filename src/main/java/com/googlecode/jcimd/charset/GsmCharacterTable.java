@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.googlecode.jcimd.charset;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Look-up table from characters to the GSM 3.38 default alphabet. Each
+ * character maps to a {@code short} holding its 7-bit value, flagged
+ * with {@link #ESCAPED} if in the extension table, or to
+ * {@link #NO_GSM_VALUE} if it cannot be encoded.
+ * <p>
+ * Latin-1 characters, which make up most of the alphabet, are looked
+ * up directly among 256 entries (512 bytes). The few others, i.e. the
+ * Greek capital letters and the euro sign, are binary searched for.
+ */
+final class GsmCharacterTable {
+
+	static final short NO_GSM_VALUE = -1;
+	static final short ESCAPED = 0x100;
+
+	private static final int LATIN_1_SIZE = 256;
+
+	private final short[] latin1 = new short[LATIN_1_SIZE];
+	private final char[] otherChars;
+	private final short[] otherValues;
+
+	/**
+	 * @param charToByte the 7-bit value of each character, preceded by
+	 *                   an escape in the high byte if in the extension
+	 *                   table
+	 */
+	GsmCharacterTable(SortedMap<Character, Integer> charToByte) {
+		Arrays.fill(latin1, NO_GSM_VALUE);
+		SortedMap<Character, Integer> others = charToByte.tailMap((char) LATIN_1_SIZE);
+		otherChars = new char[others.size()];
+		otherValues = new short[others.size()];
+		int i = 0;
+		for (Map.Entry<Character, Integer> entry : charToByte.entrySet()) {
+			char ch = entry.getKey();
+			int bite = entry.getValue();
+			short value = (short) ((bite & 0x7F)
+				| ((bite & 0xFF00) >> 8 == GsmCharsetProvider.ESCAPE ? ESCAPED : 0));
+			if (ch < LATIN_1_SIZE) {
+				latin1[ch] = value;
+			} else {
+				otherChars[i] = ch;
+				otherValues[i++] = value;
+			}
+		}
+	}
+
+	/**
+	 * @param  ch the character
+	 * @return    the value of the character, or {@link #NO_GSM_VALUE}
+	 */
+	short get(char ch) {
+		if (ch < LATIN_1_SIZE) {
+			return latin1[ch];
+		}
+		int i = Arrays.binarySearch(otherChars, ch);
+		return i >= 0 ? otherValues[i] : NO_GSM_VALUE;
+	}
+
+	/**
+	 * @param  ch the character
+	 * @return    the value of the character, or that of '?' if it
+	 *            cannot be encoded
+	 */
+	short getOrReplacement(char ch) {
+		short value = get(ch);
+		return value != NO_GSM_VALUE ? value : latin1['?'];
+	}
+
+	static boolean isEscaped(short value) {
+		return (value & ESCAPED) != 0;
+	}
+
+	static int septet(short value) {
+		return value & 0x7F;
+	}
+}
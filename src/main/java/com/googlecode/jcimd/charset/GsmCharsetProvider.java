@@ -26,7 +26,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -48,26 +50,27 @@ public class GsmCharsetProvider extends CharsetProvider {
 	static final char ESCAPE = 0x1B;
 	static char[] BYTE_TO_CHAR_SMALL_C_CEDILLA = new char[128];
 	static char[] BYTE_TO_CHAR_ESCAPED_DEFAULT = new char[128];
-	static int[] CHAR_TO_BYTE_SMALL_C_CEDILLA = new int[0x7FFF]; // 32k
-	static final char NO_GSM_BYTE = 0xFF;
+	static GsmCharacterTable CHAR_TO_BYTE_SMALL_C_CEDILLA;
+	public static final char NO_GSM_BYTE = 0xFF;
 
 	static {
 		try {
 			Arrays.fill(BYTE_TO_CHAR_ESCAPED_DEFAULT, NO_GSM_BYTE);
-			Arrays.fill(CHAR_TO_BYTE_SMALL_C_CEDILLA, NO_GSM_BYTE);
+			SortedMap<Character, Integer> charToByte = new TreeMap<>();
 			try (BufferedReader reader = new BufferedReader(
 				new InputStreamReader(
 					Gsm7BitPackedCharset.class.getResourceAsStream("GSM0338.TXT"),
 					StandardCharsets.US_ASCII))) {
-				init(reader);
+				init(reader, charToByte);
 			}
+			CHAR_TO_BYTE_SMALL_C_CEDILLA = new GsmCharacterTable(charToByte);
 		} catch (IOException e) {
 			throw new RuntimeException(
 				"Error initializing GSM charset look-up table", e);
 		}
 	}
 
-	private static int init(BufferedReader reader) throws IOException {
+	private static int init(BufferedReader reader, Map<Character, Integer> charToByte) throws IOException {
 		String line = null;
 		int count = 0;
 		while ((line = reader.readLine()) != null) {
@@ -92,7 +95,7 @@ public class GsmCharsetProvider extends CharsetProvider {
 			int bite = Integer.parseInt(hex1.substring(2), 16);
 			byte index = (byte) (bite & 0xFF);
 			char ch = (char) Integer.parseInt(hex2.substring(2), 16);
-			CHAR_TO_BYTE_SMALL_C_CEDILLA[ch] = bite;
+			charToByte.put(ch, bite);
 			if ((bite & 0xFF00) >> 8 == ESCAPE) {
 				// escape to extension table
 				BYTE_TO_CHAR_ESCAPED_DEFAULT[index] = ch;
@@ -166,6 +169,28 @@ public class GsmCharsetProvider extends CharsetProvider {
 		return GsmCharsetProvider.charsets.iterator();
 	}
 
+	/**
+	 * Returns a copy of the look-up table of the GSM 3.38 default
+	 * alphabet, indexed by 7-bit value.
+	 *
+	 * @return the characters of the default alphabet
+	 */
+	public static char[] getDefaultAlphabet() {
+		return BYTE_TO_CHAR_SMALL_C_CEDILLA.clone();
+	}
+
+	/**
+	 * Returns a copy of the look-up table of the GSM 3.38 default
+	 * alphabet extension, i.e. of the characters following an escape,
+	 * indexed by 7-bit value. Values without a character are mapped to
+	 * {@link #NO_GSM_BYTE}.
+	 *
+	 * @return the characters of the default alphabet extension
+	 */
+	public static char[] getDefaultAlphabetExtension() {
+		return BYTE_TO_CHAR_ESCAPED_DEFAULT.clone();
+	}
+
 	/**
 	 * Returns the number of bytes needed to encode the given character
 	 * sequence as GSM 3.38 (7-bit) default alphabet. Returns -1 if the
@@ -203,14 +228,10 @@ public class GsmCharsetProvider extends CharsetProvider {
 	 *            given character cannot be encoded.
 	 */
 	public static int countGsm7BitCharacterBits(char ch) {
-		int bits = 0;
-		if (CHAR_TO_BYTE_SMALL_C_CEDILLA[ch] == NO_GSM_BYTE) {
+		short value = CHAR_TO_BYTE_SMALL_C_CEDILLA.get(ch);
+		if (value == GsmCharacterTable.NO_GSM_VALUE) {
 			return -1;
 		}
-		bits += 7;
-		if (CHAR_TO_BYTE_SMALL_C_CEDILLA[ch] > 0xFF) {
-			bits += 7;
-		}
-		return bits;
+		return GsmCharacterTable.isEscaped(value) ? 14 : 7;
 	}
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.googlecode.jcimd.charset;
+
+/**
+ * Packs and unpacks septets a group at a time, through a {@code long} holding the 56 bits of the group.
+ */
+final class ScalarGsm7BitPacking extends Gsm7BitPacking {
+
+	@Override
+	public boolean isVectorized() {
+		return false;
+	}
+
+	@Override
+	public void pack(byte[] src, int srcOffset, byte[] dst, int dstOffset, int groups) {
+		for (int g = 0; g < groups; g++) {
+			long bits = 0;
+			for (int k = 0; k < 8; k++) {
+				bits |= (long) (src[srcOffset + k] & 0x7F) << (7 * k);
+			}
+			for (int j = 0; j < 7; j++) {
+				dst[dstOffset + j] = (byte) (bits >>> (8 * j));
+			}
+			srcOffset += 8;
+			dstOffset += 7;
+		}
+	}
+
+	@Override
+	public void unpack(byte[] src, int srcOffset, byte[] dst, int dstOffset, int groups) {
+		for (int g = 0; g < groups; g++) {
+			long bits = 0;
+			for (int j = 0; j < 7; j++) {
+				bits |= (long) (src[srcOffset + j] & 0xFF) << (8 * j);
+			}
+			for (int k = 0; k < 8; k++) {
+				dst[dstOffset + k] = (byte) ((bits >>> (7 * k)) & 0x7F);
+			}
+			srcOffset += 7;
+			dstOffset += 8;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at
+ * 
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.googlecode.jcimd.charset;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Packs and unpacks as many groups of septets at a time as fit in the preferred vector size, e.g. four groups of eight
+ * septets in a 256-bit vector.
+ * <p>
+ * Septet k of a group starts at bit 7k, i.e. at bit 7k % 8 of octet 7k / 8, and takes its remaining bits from the octet
+ * following it. Unpacking thus shuffles the octet each septet starts in, and the one following it, into the lane of the
+ * septet, shifts both into place and masks the result to seven bits. Packing does the reverse, shuffling the septet
+ * each octet starts with, and the one following it, into the lane of the octet. Groups, or octets, that don't fill a
+ * whole vector are left to the scalar implementation.
+ * <p>
+ * Only loaded if the {@code jdk.incubator.vector} module is present.
+ */
+final class VectorGsm7BitPacking extends Gsm7BitPacking {
+
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+	private static final int GROUPS = LANES / 8;
+
+	// Unpacking: octet of each septet, the octet following it, and the shifts bringing their bits into place
+	private static final VectorShuffle<Byte> UNPACK_LOW;
+	private static final VectorShuffle<Byte> UNPACK_HIGH;
+	private static final ByteVector UNPACK_LOW_SHIFTS;
+	private static final ByteVector UNPACK_HIGH_SHIFTS;
+
+	// Packing: septet each octet starts with, the septet following it, and the shifts bringing their bits into place
+	private static final VectorShuffle<Byte> PACK_LOW;
+	private static final VectorShuffle<Byte> PACK_HIGH;
+	private static final ByteVector PACK_LOW_SHIFTS;
+	private static final ByteVector PACK_HIGH_SHIFTS;
+	// The octets of whole groups, i.e. all but the last eighth of the lanes
+	private static final VectorMask<Byte> PACK_MASK;
+
+	static {
+		final int[] unpackLow = new int[LANES];
+		final int[] unpackHigh = new int[LANES];
+		final byte[] unpackLowShifts = new byte[LANES];
+		final byte[] unpackHighShifts = new byte[LANES];
+		final int[] packLow = new int[LANES];
+		final int[] packHigh = new int[LANES];
+		final byte[] packLowShifts = new byte[LANES];
+		final byte[] packHighShifts = new byte[LANES];
+		for (int lane = 0; lane < LANES; lane++) {
+			final int group = lane / 8;
+			final int k = lane % 8;
+
+			// Septet k of the group, from bit 7k % 8 of octet 7k / 8 and on. Septet 0 has no bits in the following
+			// octet, and septet 7 none in the octet of the next group, so those are shifted out of the seven bits kept
+			unpackLow[lane] = 7 * group + 7 * k / 8;
+			unpackHigh[lane] = unpackLow[lane] + 1;
+			unpackLowShifts[lane] = (byte) (7 * k % 8);
+			unpackHighShifts[lane] = (byte) (k == 0 ? 7 : 8 - 7 * k % 8);
+		}
+		for (int lane = 0; lane < 7 * GROUPS; lane++) {
+			final int group = lane / 7;
+			final int j = lane % 7;
+
+			// Octet j of the group, from bit j of septet j and on, followed by septet j + 1. The lanes following the
+			// octets of the groups are never stored
+			packLow[lane] = 8 * group + j;
+			packHigh[lane] = 8 * group + j + 1;
+			packLowShifts[lane] = (byte) j;
+			packHighShifts[lane] = (byte) (7 - j);
+		}
+
+		UNPACK_LOW = VectorShuffle.fromArray(SPECIES, unpackLow, 0);
+		UNPACK_HIGH = VectorShuffle.fromArray(SPECIES, unpackHigh, 0);
+		UNPACK_LOW_SHIFTS = ByteVector.fromArray(SPECIES, unpackLowShifts, 0);
+		UNPACK_HIGH_SHIFTS = ByteVector.fromArray(SPECIES, unpackHighShifts, 0);
+		PACK_LOW = VectorShuffle.fromArray(SPECIES, packLow, 0);
+		PACK_HIGH = VectorShuffle.fromArray(SPECIES, packHigh, 0);
+		PACK_LOW_SHIFTS = ByteVector.fromArray(SPECIES, packLowShifts, 0);
+		PACK_HIGH_SHIFTS = ByteVector.fromArray(SPECIES, packHighShifts, 0);
+		PACK_MASK = SPECIES.indexInRange(0, 7 * GROUPS);
+	}
+
+	private final Gsm7BitPacking scalar;
+
+	VectorGsm7BitPacking(Gsm7BitPacking scalar) {
+		this.scalar = scalar;
+	}
+
+	/**
+	 * @return whether vectors hold at least two groups, as they otherwise aren't worth the shuffles
+	 */
+	static boolean isSupported() {
+		return GROUPS >= 2;
+	}
+
+	@Override
+	public boolean isVectorized() {
+		return true;
+	}
+
+	@Override
+	public void pack(byte[] src, int srcOffset, byte[] dst, int dstOffset, int groups) {
+		// Whole vectors of septets are read, and stored masked to the octets of whole groups
+		while (groups >= GROUPS && srcOffset + LANES <= src.length) {
+			final ByteVector septets = ByteVector.fromArray(SPECIES, src, srcOffset);
+			final ByteVector low = septets.rearrange(PACK_LOW).lanewise(VectorOperators.LSHR, PACK_LOW_SHIFTS);
+			final ByteVector high = septets.rearrange(PACK_HIGH).lanewise(VectorOperators.LSHL, PACK_HIGH_SHIFTS);
+			low.or(high).intoArray(dst, dstOffset, PACK_MASK);
+
+			srcOffset += 8 * GROUPS;
+			dstOffset += 7 * GROUPS;
+			groups -= GROUPS;
+		}
+		scalar.pack(src, srcOffset, dst, dstOffset, groups);
+	}
+
+	@Override
+	public void unpack(byte[] src, int srcOffset, byte[] dst, int dstOffset, int groups) {
+		// Whole vectors of octets are read, one more than those of whole groups, and all lanes are stored as septets
+		while (groups >= GROUPS && srcOffset + LANES <= src.length && dstOffset + LANES <= dst.length) {
+			final ByteVector octets = ByteVector.fromArray(SPECIES, src, srcOffset);
+			final ByteVector low = octets.rearrange(UNPACK_LOW).lanewise(VectorOperators.LSHR, UNPACK_LOW_SHIFTS);
+			final ByteVector high = octets.rearrange(UNPACK_HIGH).lanewise(VectorOperators.LSHL, UNPACK_HIGH_SHIFTS);
+			low.or(high).and((byte) 0x7F).intoArray(dst, dstOffset);
+
+			srcOffset += 7 * GROUPS;
+			dstOffset += 8 * GROUPS;
+			groups -= GROUPS;
+		}
+		scalar.unpack(src, srcOffset, dst, dstOffset, groups);
+	}
+}
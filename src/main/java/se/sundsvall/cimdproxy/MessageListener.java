@@ -1,18 +1,27 @@
 package se.sundsvall.cimdproxy;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import org.springframework.stereotype.Component;
 import se.sundsvall.cimdproxy.cimd.CIMD;
 import se.sundsvall.cimdproxy.cimd.CIMDMessage;
 import se.sundsvall.cimdproxy.cimd.CIMDMessageListener;
 import se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration;
+import se.sundsvall.cimdproxy.journal.SubmitJournal;
 
 @Component
 class MessageListener implements CIMDMessageListener {
 
 	private final SmsSenderIntegration smsSenderIntegration;
+	private final SubmitJournal submitJournal;
 
-	MessageListener(final CIMD cimd, final SmsSenderIntegration smsSenderIntegration) {
+	MessageListener(final CIMD cimd, final SmsSenderIntegration smsSenderIntegration, final Optional<SubmitJournal> submitJournal) {
 		this.smsSenderIntegration = smsSenderIntegration;
+		this.submitJournal = submitJournal.orElse(null);
 
 		cimd.start(this);
 	}
@@ -21,4 +30,34 @@ class MessageListener implements CIMDMessageListener {
 	public boolean handleMessage(final CIMDMessage message) {
 		return smsSenderIntegration.sendSms(message.destinationAddress(), message.content());
 	}
+
+	@Override
+	public CompletionStage<Boolean> handleMessageAsync(final CIMDMessage message, final Executor executor) {
+		// Journaled messages are acknowledged as soon as they're stored, and forwarded to SmsSender in the background
+		if (submitJournal != null) {
+			return CompletableFuture.supplyAsync(() -> journal(message), executor);
+		}
+
+		// Batched messages are queued without blocking, so there's no need to go through the executor
+		if (smsSenderIntegration.isBatchingEnabled()) {
+			return smsSenderIntegration.sendSmsBatched(message.destinationAddress(), message.content());
+		}
+
+		// Likewise when SmsSender is called without blocking
+		if (smsSenderIntegration.isAsyncEnabled()) {
+			return smsSenderIntegration.sendSmsAsync(message.destinationAddress(), message.content());
+		}
+
+		return CIMDMessageListener.super.handleMessageAsync(message, executor);
+	}
+
+	private boolean journal(final CIMDMessage message) {
+		try {
+			submitJournal.append(message.destinationAddress(), message.content());
+
+			return true;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 }
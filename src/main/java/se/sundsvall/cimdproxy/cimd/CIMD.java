@@ -1,15 +1,19 @@
 package se.sundsvall.cimdproxy.cimd;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLException;
 import org.slf4j.Logger;
@@ -17,8 +21,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.ssl.SslBundles;
 import org.springframework.stereotype.Component;
+import se.sundsvall.cimdproxy.cimd.util.SessionUtil;
 import se.sundsvall.cimdproxy.configuration.CIMDProperties;
 
+import static java.lang.Boolean.TRUE;
+
 /**
  * CIMD server.
  */
@@ -30,20 +37,59 @@ public class CIMD implements DisposableBean {
 	static final String SERVER_BUNDLE_NAME = "server";
 	static final String CLIENT_BUNDLE_NAME = "client";
 
+	private static final long REASSEMBLY_EVICTION_INTERVAL_SECONDS = 1;
+
 	private final int port;
 	private final boolean sslEnabled;
 	private final boolean useCimdChecksum;
+	private final int submitWindowSize;
+	private final int maxInFlight;
+	private final WriteBufferWaterMark writeBufferWaterMark;
+	private final CIMDProperties.FlushConsolidation flushConsolidation;
+	private final CIMDProperties.Logging logging;
 	private final SslContext sslContext;
 
-	private final NioEventLoopGroup parentEventLoopGroup = new NioEventLoopGroup(25);
-	private final NioEventLoopGroup clientEventLoopGroup = new NioEventLoopGroup(25);
+	private final CIMDTransport transport;
+	private final MultiThreadIoEventLoopGroup parentEventLoopGroup;
+	private final MultiThreadIoEventLoopGroup clientEventLoopGroup;
+	private final CIMDListenerExecutor listenerExecutor;
+	private final CIMDMetrics metrics;
+	private final SubmitRateLimiter rateLimiter;
+	private final CIMDMessageReassembler reassembler;
 
 	private ChannelFuture channelFuture;
 
-	CIMD(final CIMDProperties properties, final SslBundles sslBundles) throws SSLException {
+	CIMD(final CIMDProperties properties, final SslBundles sslBundles, final MeterRegistry meterRegistry) throws SSLException {
 		port = properties.port();
 		sslEnabled = properties.ssl().enabled();
 		useCimdChecksum = properties.useCimdChecksum();
+		submitWindowSize = properties.submit().windowSize();
+		// Stop reading from a session once its outbound buffer, or the number of submits it has in flight, grows too large
+		var backpressure = properties.backpressure();
+		maxInFlight = backpressure.maxInFlight() > 0 ? backpressure.maxInFlight() : submitWindowSize;
+		writeBufferWaterMark = new WriteBufferWaterMark(
+			Math.toIntExact(backpressure.writeBufferLowWatermark().toBytes()),
+			Math.toIntExact(backpressure.writeBufferHighWatermark().toBytes()));
+		logging = properties.logging();
+		flushConsolidation = properties.flushConsolidation();
+		transport = CIMDTransport.resolve(properties.transport());
+		// A single boss thread is enough for the one port we bind, while the number of worker threads
+		// defaults to the number of (container) processors available
+		var eventLoop = properties.eventLoop();
+		var workerThreads = eventLoop.workerThreads() > 0 ? eventLoop.workerThreads() : Runtime.getRuntime().availableProcessors();
+		parentEventLoopGroup = new MultiThreadIoEventLoopGroup(eventLoop.bossThreads(),
+			new DefaultThreadFactory(eventLoop.threadNamePrefix() + "-boss"), transport.newIoHandlerFactory());
+		clientEventLoopGroup = new MultiThreadIoEventLoopGroup(workerThreads,
+			new DefaultThreadFactory(eventLoop.threadNamePrefix() + "-worker"), transport.newIoHandlerFactory());
+		listenerExecutor = new CIMDListenerExecutor(properties.listener().virtualThreads(), properties.listener().maxConcurrency());
+
+		rateLimiter = new SubmitRateLimiter(properties.rateLimit());
+
+		metrics = new CIMDMetrics(meterRegistry);
+		metrics.gaugeActiveSessions(SessionUtil::getSessionCount);
+		metrics.gaugeListenerInFlight(listenerExecutor::inFlight);
+
+		reassembler = properties.reassembly().enabled() ? new CIMDMessageReassembler(properties.reassembly(), metrics) : null;
 
 		if (sslEnabled && sslBundles.getBundleNames().contains(SERVER_BUNDLE_NAME)) {
 			var sslServerBundle = sslBundles.getBundle(SERVER_BUNDLE_NAME);
@@ -73,31 +119,49 @@ public class CIMD implements DisposableBean {
 
 	public void start(final CIMDMessageListener listener) {
 		try {
+			if (reassembler != null) {
+				clientEventLoopGroup.next().scheduleWithFixedDelay(
+					() -> reassembler.evictExpired(message -> forwardPartialMessage(listener, message)),
+					REASSEMBLY_EVICTION_INTERVAL_SECONDS, REASSEMBLY_EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+			}
+
 			channelFuture = new ServerBootstrap()
 				.group(parentEventLoopGroup, clientEventLoopGroup)
-				.channel(NioServerSocketChannel.class)
+				.channel(transport.serverChannelClass())
 				.childHandler(new ChannelInitializer<SocketChannel>() {
 
 					@Override
 					protected void initChannel(final SocketChannel socketChannel) {
 						var pipeline = socketChannel.pipeline();
 
+						// Count bytes as seen on the wire, i.e. before any decryption
+						pipeline.addLast(new CIMDTrafficHandler(metrics));
+
 						if (sslContext != null) {
 							pipeline.addLast(sslContext.newHandler(socketChannel.alloc()));
 						}
 
+						// Hold back flushes while a read is in progress, so that the responses to the packets of a
+						// single read leave in a single write
+						if (flushConsolidation.enabled()) {
+							pipeline.addLast(new FlushConsolidationHandler(flushConsolidation.explicitFlushAfterFlushes(),
+								flushConsolidation.consolidateWhenNoReadInProgress()));
+						}
+
 						pipeline
-							.addLast(new CIMDPacketDecoder(useCimdChecksum))
+							.addLast(new CIMDPacketDecoder(useCimdChecksum, metrics))
 							.addLast(new CIMDPacketEncoder(useCimdChecksum))
-							.addLast(new CIMDAdapter(listener));
+							.addLast(new CIMDAdapter(listener, listenerExecutor, submitWindowSize, maxInFlight, logging, metrics, rateLimiter, reassembler));
 					}
 				})
 				.option(ChannelOption.SO_BACKLOG, 128)
 				.childOption(ChannelOption.SO_KEEPALIVE, true)
+				.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, writeBufferWaterMark)
 				.bind(port)
 				.sync();
 
-			LOG.info("CIMD listening on port {}{}", port, sslEnabled ? " (using SSL)" : "");
+			LOG.info("CIMD listening on port {} using {} transport and {} worker thread(s){}", port, transport,
+				clientEventLoopGroup.executorCount(), sslEnabled ? " (using SSL)" : "");
 		} catch (final InterruptedException interruptedException) {
 			Thread.currentThread().interrupt();
 		} catch (final Exception e) {
@@ -107,6 +171,18 @@ public class CIMD implements DisposableBean {
 		}
 	}
 
+	private void forwardPartialMessage(final CIMDMessageListener listener, final CIMDMessage message) {
+		try {
+			listener.handleMessageAsync(message, listenerExecutor).whenComplete((handled, failure) -> {
+				if (failure != null || !TRUE.equals(handled)) {
+					LOG.warn("Unable to forward partial message", failure);
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			LOG.warn("Unable to forward partial message, listener executor saturated");
+		}
+	}
+
 	@Override
 	public void destroy() throws Exception {
 		LOG.info("CIMD shutting down");
@@ -119,6 +195,7 @@ public class CIMD implements DisposableBean {
 		} finally {
 			clientEventLoopGroup.shutdownGracefully();
 			parentEventLoopGroup.shutdownGracefully();
+			listenerExecutor.close();
 
 			LOG.info("CIMD shut down");
 		}
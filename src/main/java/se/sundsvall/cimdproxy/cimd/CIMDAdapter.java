@@ -7,11 +7,23 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.sundsvall.cimdproxy.cimd.util.SessionUtil;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties;
 
+import static java.lang.Boolean.TRUE;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static se.sundsvall.cimdproxy.cimd.CIMDConstants.ERROR_CODE_REQUESTED_OPERATION_FAILED;
+import static se.sundsvall.cimdproxy.cimd.CIMDConstants.ERROR_CODE_TEMPORARY_CONGESTION;
+import static se.sundsvall.cimdproxy.cimd.CIMDConstants.ERROR_TEXT_REQUESTED_OPERATION_FAILED;
+import static se.sundsvall.cimdproxy.cimd.CIMDConstants.ERROR_TEXT_TEMPORARY_CONGESTION;
 import static se.sundsvall.dept44.util.LogUtils.sanitizeForLogging;
 
 /**
@@ -25,34 +37,69 @@ public class CIMDAdapter extends ChannelInboundHandlerAdapter {
 	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyMMddHHmmss");
 
 	private final CIMDMessageListener listener;
+	private final Executor listenerExecutor;
+	private final int submitWindowSize;
+	private final int maxInFlight;
+	private final CIMDProperties.Logging logging;
+	private final CIMDMetrics metrics;
+	private final SubmitRateLimiter rateLimiter;
+	private final CIMDMessageReassembler reassembler;
 
+	private ChannelHandlerContext ctx;
 	private Session session;
+	private SubmitWindow submitWindow;
+	private ReadPauseController readPauseController;
+	// Whether reading is paused for too many submits in flight, only read and written on the event loop
+	private boolean inFlightPaused;
+	private CIMDMessageLog messageLog;
+	private ScheduledFuture<?> summaryTask;
+	private ScheduledFuture<?> resumeReadTask;
+	private long resumeReadAt;
 
-	public CIMDAdapter(final CIMDMessageListener listener) {
+	public CIMDAdapter(final CIMDMessageListener listener, final Executor listenerExecutor, final int submitWindowSize, final int maxInFlight,
+		final CIMDProperties.Logging logging, final CIMDMetrics metrics, final SubmitRateLimiter rateLimiter,
+		final CIMDMessageReassembler reassembler) {
 		this.listener = listener;
+		this.listenerExecutor = listenerExecutor;
+		this.submitWindowSize = submitWindowSize;
+		this.maxInFlight = maxInFlight;
+		this.logging = logging;
+		this.metrics = metrics;
+		this.rateLimiter = rateLimiter;
+		this.reassembler = reassembler;
 	}
 
 	@Override
 	public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
-		final var request = (Packet) msg;
-		LOG.debug("Session [{}] - received packet: {}", session, sanitizeForLogging(String.valueOf(request)));
+		final var request = (CIMDPacketView) msg;
+		try {
+			handlePacket(request);
+		} finally {
+			request.release();
+		}
+	}
 
-		Packet response;
+	private void handlePacket(final CIMDPacketView request) {
+		// The packet is only turned into a string when debug logging is actually enabled
+		LOG.atDebug()
+			.setMessage("Session [{}] - received packet: {}")
+			.addArgument(session)
+			.addArgument(() -> sanitizeForLogging(String.valueOf(request)))
+			.log();
+
+		Object response;
 
 		switch (request.getOperationCode()) {
 			case Packet.OP_LOGIN -> {
-				response = new Packet(request.getOperationCode() + 50, request.getSequenceNumber());
-				for (final Parameter parameter : request.getParameters()) {
-					if (parameter.getNumber() == Parameter.USER_IDENTITY) {
-						LOG.info("Session [{}] - user: {}", session, isNotBlank(parameter.getValue()) ? parameter.getValue() : "<empty>");
-						SessionUtil.setUserId(session, parameter.getValue());
-						break;
-					}
+				response = CIMDFixedResponse.loginResponse(request.getSequenceNumber());
+				final var userId = request.getValue(Parameter.USER_IDENTITY);
+				if (userId != null) {
+					LOG.info("Session [{}] - user: {}", session, isNotBlank(userId) ? userId : "<empty>");
+					SessionUtil.setUserId(session, userId);
 				}
 			}
 			case Packet.OP_LOGOUT -> {
-				response = new Packet(request.getOperationCode() + 50, request.getSequenceNumber());
-				session.send(response);
+				session.send(CIMDFixedResponse.logoutResponse(request.getSequenceNumber()));
 				session.close();
 				return;
 			}
@@ -60,24 +107,87 @@ public class CIMDAdapter extends ChannelInboundHandlerAdapter {
 				// Message from application to SMSC
 				final var cimdPacket = new CIMDPacket(request);
 				if (cimdPacket.getDestinationAddress() == null) {
-					LOG.error("Session [{}] - missing destination parameter: {}", session, sanitizeForLogging(String.valueOf(request)));
+					LOG.atError()
+						.setMessage("Session [{}] - missing destination parameter: {}")
+						.addArgument(session)
+						.addArgument(() -> sanitizeForLogging(String.valueOf(request)))
+						.log();
 					return;
 				}
-				LOG.info("Session [{}] - received message with destination address {}: {}",
-					session, cimdPacket.getDestinationAddress(), cimdPacket.getUserData());
-				if (listener.handleMessage(new CIMDMessage(cimdPacket.getDestinationAddress(), cimdPacket.getUserData()))) {
-					response = new Packet(request.getOperationCode() + 50,
-						request.getSequenceNumber(),
-						new Parameter(Parameter.DESTINATION_ADDRESS, cimdPacket.getDestinationAddress()),
-						new Parameter(Parameter.MC_TIMESTAMP, DATE_TIME_FORMATTER.format(LocalDateTime.now())));
-				} else {
-					response = new Packet(request.getOperationCode() + 50,
-						request.getSequenceNumber(),
-						new Parameter(Parameter.ERROR_CODE, "9"),
-						new Parameter(Parameter.ERROR_TEXT, "Requested operation failed"));
+				messageLog.received(cimdPacket.getDestinationAddress(), cimdPacket.getUserData());
+				final var sequenceNumber = request.getSequenceNumber();
+
+				// Keep track of the submit in the session window, answering with a congestion error if the
+				// client has more submits in flight than we allow
+				if (!submitWindow.tryAcquire(sequenceNumber)) {
+					if (submitWindow.isInFlight(sequenceNumber)) {
+						LOG.warn("Session [{}] - submit with sequence number {} already in flight", session, sequenceNumber);
+					} else {
+						LOG.warn("Session [{}] - submit window full ({} in flight)", session, submitWindow.inFlight());
+					}
+					messageLog.congested();
+					metrics.submitCongested();
+					session.send(congestionResponse(sequenceNumber));
+					return;
+				}
+
+				// Hold the client to the rate limits, either by answering with a congestion error, or by not
+				// reading any further submits from it until it's back within the limits. Submits the window
+				// turned away are not counted, as clients retry those
+				final var userId = SessionUtil.getUserId(session);
+				if (rateLimiter.isThrottling()) {
+					pauseForRateLimit(rateLimiter.reserve(userId));
+				} else if (!rateLimiter.tryAcquire(userId)) {
+					LOG.warn("Session [{}] - submit rate limit exceeded", session);
+					submitWindow.release(sequenceNumber);
+					messageLog.congested();
+					metrics.submitRateLimited();
+					session.send(congestionResponse(sequenceNumber));
+					return;
+				}
+
+				// Hold on to the parts of a concatenated message, accepting each, until all have arrived and
+				// the message can be handled as a whole
+				var message = new CIMDMessage(cimdPacket.getDestinationAddress(), cimdPacket.getUserData());
+				final var concatenation = cimdPacket.getConcatenation();
+				if (reassembler != null && concatenation != null) {
+					final var reassembly = reassembler.add(userId, message, concatenation);
+					switch (reassembly.status()) {
+						case PENDING -> {
+							submitWindow.release(sequenceNumber);
+							session.send(submitResponse(sequenceNumber, cimdPacket.getDestinationAddress(), TRUE, null));
+							return;
+						}
+						case FULL -> {
+							LOG.warn("Session [{}] - too many parts of concatenated messages pending", session);
+							submitWindow.release(sequenceNumber);
+							messageLog.congested();
+							metrics.submitCongested();
+							session.send(congestionResponse(sequenceNumber));
+							return;
+						}
+						case COMPLETE -> message = reassembly.message();
+					}
 				}
+
+				// Hand the message off to the listener executor and answer once it completes, so
+				// that the event loop is free to serve other channels (and further submits within
+				// the window) in the meantime. Responses are thus written in completion order. Note
+				// that the request itself is released once we return, so it mustn't be captured
+				metrics.submitStarted();
+				pauseIfTooManyInFlight();
+				final var sample = metrics.startListenerTimer();
+				dispatch(message)
+					.whenComplete((handled, failure) -> {
+						metrics.stopListenerTimer(sample, failure == null && TRUE.equals(handled));
+						metrics.submitCompleted();
+						submitWindow.release(sequenceNumber);
+						resumeIfFewerInFlight();
+						session.send(submitResponse(sequenceNumber, cimdPacket.getDestinationAddress(), handled, failure));
+					});
+				return;
 			}
-			case Packet.OP_ALIVE -> response = new Packet(request.getOperationCode() + 50, request.getSequenceNumber());
+			case Packet.OP_ALIVE -> response = CIMDFixedResponse.aliveResponse(request.getSequenceNumber());
 			case CIMDConstants.OP_DELIVER_MESSAGE_RSP -> {
 				// positive response to "deliver message" - msg from SMSC to app
 				return;
@@ -88,7 +198,11 @@ public class CIMDAdapter extends ChannelInboundHandlerAdapter {
 			}
 			default -> {
 				response = new Packet(Packet.OP_GENERAL_ERROR_RESPONSE);
-				LOG.error("Session [{}] - no handler for CIMD operation: {}", session, sanitizeForLogging(String.valueOf(request)));
+				LOG.atError()
+					.setMessage("Session [{}] - no handler for CIMD operation: {}")
+					.addArgument(session)
+					.addArgument(() -> sanitizeForLogging(String.valueOf(request)))
+					.log();
 			}
 		}
 
@@ -96,6 +210,105 @@ public class CIMDAdapter extends ChannelInboundHandlerAdapter {
 		session.send(response);
 	}
 
+	/**
+	 * Stops reading from the channel for the given time, leaving it to TCP flow control to slow the client down.
+	 */
+	private void pauseForRateLimit(final long nanos) {
+		if (nanos <= 0) {
+			return;
+		}
+
+		final var resumeAt = System.nanoTime() + nanos;
+		if (resumeReadTask != null && !resumeReadTask.isDone()) {
+			if (resumeAt - resumeReadAt <= 0) {
+				return;
+			}
+			resumeReadTask.cancel(false);
+		}
+
+		resumeReadAt = resumeAt;
+		readPauseController.pause(ReadPauseController.Reason.RATE_LIMITED);
+		resumeReadTask = ctx.executor().schedule(() -> readPauseController.resume(ReadPauseController.Reason.RATE_LIMITED), nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void pauseIfTooManyInFlight() {
+		if (submitWindow.inFlight() >= maxInFlight) {
+			readPauseController.pause(ReadPauseController.Reason.IN_FLIGHT);
+			inFlightPaused = true;
+		}
+	}
+
+	private void resumeIfFewerInFlight() {
+		// Submits complete on the listener executor, so hand over to the event loop that pauses reading
+		if (!ctx.channel().eventLoop().inEventLoop()) {
+			ctx.channel().eventLoop().execute(this::resumeIfFewerInFlight);
+			return;
+		}
+
+		if (inFlightPaused && submitWindow.inFlight() < maxInFlight) {
+			inFlightPaused = false;
+			readPauseController.resume(ReadPauseController.Reason.IN_FLIGHT);
+		}
+	}
+
+	private CompletionStage<Boolean> dispatch(final CIMDMessage message) {
+		try {
+			return listener.handleMessageAsync(message, listenerExecutor);
+		} catch (final RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	private Packet congestionResponse(final int sequenceNumber) {
+		return new Packet(Packet.OP_SUBMIT_MESSAGE + 50,
+			sequenceNumber,
+			new Parameter(Parameter.ERROR_CODE, ERROR_CODE_TEMPORARY_CONGESTION),
+			new Parameter(Parameter.ERROR_TEXT, ERROR_TEXT_TEMPORARY_CONGESTION));
+	}
+
+	private Packet submitResponse(final int sequenceNumber, final String destinationAddress, final Boolean handled, final Throwable failure) {
+		if (failure == null && TRUE.equals(handled)) {
+			messageLog.accepted();
+			metrics.submitAccepted();
+
+			return new Packet(Packet.OP_SUBMIT_MESSAGE + 50,
+				sequenceNumber,
+				new Parameter(Parameter.DESTINATION_ADDRESS, destinationAddress),
+				new Parameter(Parameter.MC_TIMESTAMP, DATE_TIME_FORMATTER.format(LocalDateTime.now())));
+		}
+
+		if (failure != null && (failure instanceof RejectedExecutionException || failure.getCause() instanceof RejectedExecutionException)) {
+			LOG.warn("Session [{}] - unable to handle message, listener executor saturated", session);
+			messageLog.congested();
+			metrics.submitCongested();
+
+			return congestionResponse(sequenceNumber);
+		}
+
+		if (failure != null) {
+			LOG.warn(String.format("Session [%s] - unable to handle message", session), failure);
+		}
+		messageLog.failed();
+		metrics.submitFailed();
+
+		return new Packet(Packet.OP_SUBMIT_MESSAGE + 50,
+			sequenceNumber,
+			new Parameter(Parameter.ERROR_CODE, ERROR_CODE_REQUESTED_OPERATION_FAILED),
+			new Parameter(Parameter.ERROR_TEXT, ERROR_TEXT_REQUESTED_OPERATION_FAILED));
+	}
+
+	@Override
+	public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+		// Stop reading further submits while the client isn't reading the responses to the previous ones
+		if (ctx.channel().isWritable()) {
+			readPauseController.resume(ReadPauseController.Reason.UNWRITABLE);
+		} else {
+			readPauseController.pause(ReadPauseController.Reason.UNWRITABLE);
+		}
+
+		ctx.fireChannelWritabilityChanged();
+	}
+
 	@Override
 	public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
 		LOG.warn("Exception caught", cause);
@@ -103,7 +316,18 @@ public class CIMDAdapter extends ChannelInboundHandlerAdapter {
 
 	@Override
 	public void handlerAdded(final ChannelHandlerContext ctx) {
+		this.ctx = ctx;
 		session = SessionUtil.getSession(ctx.channel());
+		submitWindow = new SubmitWindow(submitWindowSize);
+		SessionUtil.setSubmitWindow(session, submitWindow);
+		readPauseController = new ReadPauseController(ctx.channel(), metrics);
+
+		// Summarize the session periodically, rather than logging every message
+		messageLog = new CIMDMessageLog(session, logging);
+		if (logging.mode() == CIMDProperties.Logging.Mode.SUMMARY) {
+			final var interval = logging.summaryInterval().toMillis();
+			summaryTask = ctx.executor().scheduleAtFixedRate(messageLog::logSummary, interval, interval, TimeUnit.MILLISECONDS);
+		}
 
 		// Send back something, anything, since MG/OneGate expects something from the proxy to
 		// actually start the real CIMD communication...
@@ -112,6 +336,18 @@ public class CIMDAdapter extends ChannelInboundHandlerAdapter {
 
 	@Override
 	public void handlerRemoved(final ChannelHandlerContext ctx) {
+		if (summaryTask != null) {
+			summaryTask.cancel(false);
+		}
+		if (resumeReadTask != null) {
+			resumeReadTask.cancel(false);
+		}
+		readPauseController.close();
+		// Summarize what was left since the last periodic summary, which messages logged one by one don't need
+		if (logging.mode() == CIMDProperties.Logging.Mode.SUMMARY) {
+			messageLog.logSummary();
+		}
+
 		try {
 			session.close().sync();
 
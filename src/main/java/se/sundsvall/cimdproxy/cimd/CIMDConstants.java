@@ -4,5 +4,10 @@ public final class CIMDConstants {
 
 	public static final int OP_DELIVER_MESSAGE_RSP = 70;
 
+	public static final int ERROR_CODE_REQUESTED_OPERATION_FAILED = 9;
+	public static final String ERROR_TEXT_REQUESTED_OPERATION_FAILED = "Requested operation failed";
+	public static final int ERROR_CODE_TEMPORARY_CONGESTION = 10;
+	public static final String ERROR_TEXT_TEMPORARY_CONGESTION = "Temporary congestion error";
+
 	private CIMDConstants() {}
 }
@@ -0,0 +1,81 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+
+import static com.googlecode.jcimd.PacketSerializer.COLON;
+import static com.googlecode.jcimd.PacketSerializer.ETX;
+import static com.googlecode.jcimd.PacketSerializer.STX;
+import static com.googlecode.jcimd.PacketSerializer.TAB;
+
+/**
+ * Response without parameters, i.e. one that only ever differs from others of its kind in sequence number.
+ * <p>
+ * Such responses are encoded by copying a frame encoded up front, patching in the sequence number and checksum,
+ * rather than by building and serializing a {@link Packet}.
+ *
+ * @param operation      the operation of the response
+ * @param sequenceNumber the sequence number of the request responded to
+ */
+record CIMDFixedResponse(Operation operation, int sequenceNumber) {
+
+	/** Offset of the sequence number digits in the frame, i.e. following &lt;STX&gt;ZZ: */
+	static final int SEQUENCE_NUMBER_OFFSET = 4;
+	/** Offset of the checksum in the frame, i.e. following &lt;STX&gt;ZZ:NNN&lt;TAB&gt; */
+	static final int CHECKSUM_OFFSET = 8;
+
+	static CIMDFixedResponse loginResponse(final int sequenceNumber) {
+		return new CIMDFixedResponse(Operation.LOGIN_RESPONSE, sequenceNumber);
+	}
+
+	static CIMDFixedResponse logoutResponse(final int sequenceNumber) {
+		return new CIMDFixedResponse(Operation.LOGOUT_RESPONSE, sequenceNumber);
+	}
+
+	static CIMDFixedResponse aliveResponse(final int sequenceNumber) {
+		return new CIMDFixedResponse(Operation.ALIVE_RESPONSE, sequenceNumber);
+	}
+
+	enum Operation {
+		LOGIN_RESPONSE(Packet.OP_LOGIN + 50),
+		LOGOUT_RESPONSE(Packet.OP_LOGOUT + 50),
+		ALIVE_RESPONSE(Packet.OP_ALIVE + 50);
+
+		private final int operationCode;
+		// <STX>ZZ:000<TAB>00<ETX> and <STX>ZZ:000<TAB><ETX>
+		private final byte[] frameWithChecksum;
+		private final byte[] frameWithoutChecksum;
+		// Checksum of the frame, not counting the sequence number digits
+		private final int checksum;
+
+		Operation(final int operationCode) {
+			this.operationCode = operationCode;
+
+			final var tens = (byte) ('0' + operationCode / 10);
+			final var ones = (byte) ('0' + operationCode % 10);
+			frameWithChecksum = new byte[] {
+				STX, tens, ones, COLON, '0', '0', '0', TAB, '0', '0', ETX
+			};
+			frameWithoutChecksum = new byte[] {
+				STX, tens, ones, COLON, '0', '0', '0', TAB, ETX
+			};
+			checksum = STX + tens + ones + COLON + TAB;
+		}
+
+		int operationCode() {
+			return operationCode;
+		}
+
+		byte[] frame(final boolean useChecksum) {
+			return useChecksum ? frameWithChecksum : frameWithoutChecksum;
+		}
+
+		int checksum() {
+			return checksum;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CIMDFixedResponse{operationCode=%02d, sequenceNumber=%03d}".formatted(operation.operationCode(), sequenceNumber);
+	}
+}
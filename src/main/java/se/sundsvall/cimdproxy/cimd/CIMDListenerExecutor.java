@@ -0,0 +1,63 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded executor running (potentially blocking) message listener work off the Netty event loops.
+ * <p>
+ * At most {@code maxConcurrency} tasks are accepted at any given time. Tasks submitted beyond that are rejected with a
+ * {@link RejectedExecutionException}, rather than queued, so that a slow downstream shows up as congestion towards the
+ * CIMD client instead of as an ever-growing backlog.
+ */
+class CIMDListenerExecutor implements Executor, AutoCloseable {
+
+	private static final String THREAD_NAME_PREFIX = "cimd-listener-";
+
+	private final ExecutorService delegate;
+	private final Semaphore permits;
+	private final int maxConcurrency;
+
+	CIMDListenerExecutor(final boolean virtualThreads, final int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+
+		permits = new Semaphore(maxConcurrency);
+		delegate = virtualThreads
+			? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory())
+			: Executors.newFixedThreadPool(maxConcurrency, Thread.ofPlatform().name(THREAD_NAME_PREFIX, 0).daemon().factory());
+	}
+
+	@Override
+	public void execute(final Runnable command) {
+		if (!permits.tryAcquire()) {
+			throw new RejectedExecutionException("Listener executor saturated (" + maxConcurrency + " tasks in flight)");
+		}
+
+		try {
+			delegate.execute(() -> {
+				try {
+					command.run();
+				} finally {
+					permits.release();
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	int inFlight() {
+		return maxConcurrency - permits.availablePermits();
+	}
+
+	@Override
+	public void close() throws InterruptedException {
+		delegate.shutdown();
+		delegate.awaitTermination(5, TimeUnit.SECONDS);
+	}
+}
@@ -1,6 +1,26 @@
 package se.sundsvall.cimdproxy.cimd;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 public interface CIMDMessageListener {
 
 	boolean handleMessage(CIMDMessage message);
+
+	/**
+	 * Handles the given message asynchronously. The CIMD server calls this method from a Netty event loop thread, so
+	 * implementations must never block the calling thread.
+	 * <p>
+	 * The default implementation runs {@link #handleMessage(CIMDMessage)} on the given executor, which is bounded and
+	 * intended for blocking work. Implementations that are non-blocking by nature may override this method and ignore the
+	 * executor.
+	 *
+	 * @param  message  the message to handle
+	 * @param  executor the executor to run blocking work on
+	 * @return          a completion stage that completes with {@code true} if the message was handled successfully
+	 */
+	default CompletionStage<Boolean> handleMessageAsync(final CIMDMessage message, final Executor executor) {
+		return CompletableFuture.supplyAsync(() -> handleMessage(message), executor);
+	}
 }
@@ -0,0 +1,72 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties;
+
+/**
+ * Logs the messages received within a session, either as one line per message or as a periodic summary of the
+ * session, optionally with every n:th message logged as a sample.
+ * <p>
+ * Messages are received on the event loop of the session, while outcomes are recorded on whichever thread the message
+ * was handled on.
+ */
+final class CIMDMessageLog {
+
+	// Log as the adapter, to keep existing logging configuration working
+	private static final Logger LOG = LoggerFactory.getLogger(CIMDAdapter.class);
+
+	private final Session session;
+	private final boolean perMessage;
+	private final int sampleEvery;
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder congested = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	private long received;
+	private long receivedAtLastSummary;
+
+	CIMDMessageLog(final Session session, final CIMDProperties.Logging logging) {
+		this.session = session;
+		this.perMessage = logging.mode() == CIMDProperties.Logging.Mode.PER_MESSAGE;
+		this.sampleEvery = logging.sampleEvery();
+	}
+
+	void received(final String destinationAddress, final String userData) {
+		received++;
+
+		if (perMessage) {
+			LOG.info("Session [{}] - received message with destination address {}: {}", session, destinationAddress, userData);
+		} else if (sampleEvery > 0 && received % sampleEvery == 0) {
+			LOG.info("Session [{}] - received message with destination address {} (sampled, 1 in {}): {}",
+				session, destinationAddress, sampleEvery, userData);
+		}
+	}
+
+	void accepted() {
+		accepted.increment();
+	}
+
+	void congested() {
+		congested.increment();
+	}
+
+	void failed() {
+		failed.increment();
+	}
+
+	/**
+	 * Logs the totals of the session so far, unless no messages have been received since the last summary.
+	 */
+	void logSummary() {
+		if (received == receivedAtLastSummary) {
+			return;
+		}
+		receivedAtLastSummary = received;
+
+		LOG.info("Session [{}] - {} message(s) received: {} accepted, {} rejected due to congestion, {} failed",
+			session, received, accepted.sum(), congested.sum(), failed.sum());
+	}
+}
@@ -0,0 +1,175 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties;
+
+/**
+ * Reassembles concatenated messages from their parts, shared by all sessions.
+ * <p>
+ * Parts are keyed by the user id of the session, the destination address and the reference number of the message, so
+ * that a message may be reassembled from parts submitted over several sessions of the same user. Messages not complete
+ * within the configured timeout are either discarded or forwarded as far as they go, and no more than a configured
+ * number of parts are held at any time.
+ */
+final class CIMDMessageReassembler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CIMDMessageReassembler.class);
+
+	private final long timeoutNanos;
+	private final CIMDProperties.Reassembly.TimeoutPolicy timeoutPolicy;
+	private final int maxPendingParts;
+	private final CIMDMetrics metrics;
+
+	private final Map<Key, PendingMessage> pendingMessages = new ConcurrentHashMap<>();
+	private final AtomicInteger pendingParts = new AtomicInteger();
+
+	CIMDMessageReassembler(final CIMDProperties.Reassembly properties, final CIMDMetrics metrics) {
+		this.metrics = metrics;
+
+		timeoutNanos = properties.timeout().toNanos();
+		timeoutPolicy = properties.timeoutPolicy();
+		maxPendingParts = properties.maxPendingParts();
+
+		metrics.gaugeReassemblyPending(pendingMessages::size, pendingParts::get);
+	}
+
+	/**
+	 * Adds a part of a concatenated message.
+	 *
+	 * @param  userId        the user id of the session, or {@code null} if not logged in
+	 * @param  part          the part, i.e. its destination address and content
+	 * @param  concatenation where in the message the part belongs
+	 * @return               the outcome, holding the reassembled message once all parts have been added
+	 */
+	Result add(final String userId, final CIMDMessage part, final CIMDPacket.Concatenation concatenation) {
+		final var total = concatenation.total();
+		final var sequence = concatenation.sequence();
+		if (total <= 1 || sequence < 1 || sequence > total) {
+			// Not really a part of anything
+			return Result.complete(part);
+		}
+
+		final var key = new Key(Objects.requireNonNullElse(userId, ""), part.destinationAddress(), concatenation.reference());
+		final var result = new Result[1];
+		pendingMessages.compute(key, (ignored, pendingMessage) -> {
+			var message = pendingMessage;
+			if (message != null && message.parts.length != total) {
+				// A new message reusing the reference number, before the previous one was complete
+				LOG.warn("Discarding {} part(s) of incomplete message to {}, reference number reused", message.received, part.destinationAddress());
+				pendingParts.addAndGet(-message.received);
+				metrics.reassemblyDiscarded();
+				message = null;
+			}
+
+			final var isNewPart = message == null || message.parts[sequence - 1] == null;
+			// The last part of a message frees parts rather than holding on to any, so is never turned away
+			final var isLastPart = isNewPart && message != null && message.received == total - 1;
+			if (isNewPart && !isLastPart && pendingParts.get() >= maxPendingParts) {
+				result[0] = Result.FULL;
+				return message;
+			}
+
+			if (message == null) {
+				message = new PendingMessage(part.destinationAddress(), total);
+			}
+			if (isNewPart) {
+				message.received++;
+				pendingParts.incrementAndGet();
+			}
+			message.parts[sequence - 1] = part.content();
+
+			if (message.received < total) {
+				result[0] = Result.PENDING;
+				return message;
+			}
+
+			pendingParts.addAndGet(-total);
+			result[0] = Result.complete(message.toMessage());
+			return null;
+		});
+
+		return result[0];
+	}
+
+	/**
+	 * Evicts the messages that haven't been completed in time, handing them to the given handler as far as they go if
+	 * so configured.
+	 *
+	 * @param partialMessageHandler the handler of partial messages
+	 */
+	void evictExpired(final Consumer<CIMDMessage> partialMessageHandler) {
+		final var now = System.nanoTime();
+		pendingMessages.forEach((key, message) -> {
+			if (now - message.createdAt < timeoutNanos || !pendingMessages.remove(key, message)) {
+				return;
+			}
+
+			// Parts can't be added once removed, so the message is ours alone from here on
+			pendingParts.addAndGet(-message.received);
+			metrics.reassemblyExpired();
+			if (timeoutPolicy == CIMDProperties.Reassembly.TimeoutPolicy.FORWARD_PARTIAL) {
+				LOG.warn("Forwarding {} of {} part(s) of incomplete message to {}", message.received, message.parts.length, message.destinationAddress);
+				partialMessageHandler.accept(message.toMessage());
+			} else {
+				LOG.warn("Discarding {} of {} part(s) of incomplete message to {}", message.received, message.parts.length, message.destinationAddress);
+			}
+		});
+	}
+
+	/**
+	 * Outcome of adding a part.
+	 *
+	 * @param status  the status of the message
+	 * @param message the reassembled message, if complete
+	 */
+	record Result(Status status, CIMDMessage message) {
+
+		enum Status {
+			/** All parts have been added. */
+			COMPLETE,
+			/** Waiting for more parts. */
+			PENDING,
+			/** Too many parts are waiting already. */
+			FULL
+		}
+
+		static final Result PENDING = new Result(Status.PENDING, null);
+		static final Result FULL = new Result(Status.FULL, null);
+
+		static Result complete(final CIMDMessage message) {
+			return new Result(Status.COMPLETE, message);
+		}
+	}
+
+	private record Key(String userId, String destinationAddress, int reference) {}
+
+	/**
+	 * Parts received so far, only ever accessed while holding its entry of the map, or once removed from it.
+	 */
+	private static final class PendingMessage {
+
+		private final String destinationAddress;
+		private final String[] parts;
+		private final long createdAt = System.nanoTime();
+		private int received;
+
+		private PendingMessage(final String destinationAddress, final int total) {
+			this.destinationAddress = destinationAddress;
+			parts = new String[total];
+		}
+
+		private CIMDMessage toMessage() {
+			return new CIMDMessage(destinationAddress, Arrays.stream(parts)
+				.filter(Objects::nonNull)
+				.collect(Collectors.joining()));
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters of the CIMD server.
+ * <p>
+ * Meters that are updated per packet are created up front, or cached once created, so that recording a value is never
+ * more than a field or array read away.
+ */
+final class CIMDMetrics {
+
+	static final String PACKETS_RECEIVED = "cimd.packets.received";
+	static final String DECODE_ERRORS = "cimd.packets.decode.errors";
+	static final String SUBMITS = "cimd.submits";
+	static final String SUBMITS_IN_FLIGHT = "cimd.submits.in.flight";
+	static final String LISTENER_DURATION = "cimd.listener.duration";
+	static final String LISTENER_IN_FLIGHT = "cimd.listener.in.flight";
+	static final String SESSIONS_ACTIVE = "cimd.sessions.active";
+	static final String BYTES = "cimd.bytes";
+	static final String SESSION_BYTES = "cimd.session.bytes";
+	static final String READS_PAUSED = "cimd.reads.paused";
+	static final String REASSEMBLY_PENDING_MESSAGES = "cimd.reassembly.pending.messages";
+	static final String REASSEMBLY_PENDING_PARTS = "cimd.reassembly.pending.parts";
+	static final String REASSEMBLY_INCOMPLETE = "cimd.reassembly.incomplete";
+
+	static final String OUTCOME_ACCEPTED = "accepted";
+	static final String OUTCOME_CONGESTED = "congested";
+	static final String OUTCOME_FAILED = "failed";
+	static final String OUTCOME_RATE_LIMITED = "rate-limited";
+
+	private final MeterRegistry meterRegistry;
+
+	// Received packets per operation code, created on first use
+	private final AtomicReferenceArray<Counter> packetsReceived = new AtomicReferenceArray<>(100);
+	private final Counter decodeErrors;
+	private final Counter submitsAccepted;
+	private final Counter submitsCongested;
+	private final Counter submitsFailed;
+	private final Counter submitsRateLimited;
+	private final AtomicInteger submitsInFlight = new AtomicInteger();
+	private final Timer listenerAccepted;
+	private final Timer listenerFailed;
+	private final Counter bytesIn;
+	private final Counter bytesOut;
+	private final DistributionSummary sessionBytesIn;
+	private final DistributionSummary sessionBytesOut;
+	// Time spent paused per reason, by ordinal
+	private final Timer[] readsPaused;
+	private final Counter reassemblyExpired;
+	private final Counter reassemblyDiscarded;
+
+	CIMDMetrics(final MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+
+		decodeErrors = Counter.builder(DECODE_ERRORS)
+			.description("Number of received CIMD packets that could not be decoded")
+			.register(meterRegistry);
+		submitsAccepted = submitCounter(OUTCOME_ACCEPTED);
+		submitsCongested = submitCounter(OUTCOME_CONGESTED);
+		submitsFailed = submitCounter(OUTCOME_FAILED);
+		submitsRateLimited = submitCounter(OUTCOME_RATE_LIMITED);
+		Gauge.builder(SUBMITS_IN_FLIGHT, submitsInFlight, AtomicInteger::get)
+			.description("Number of submitted messages not yet answered")
+			.register(meterRegistry);
+		listenerAccepted = listenerTimer(OUTCOME_ACCEPTED);
+		listenerFailed = listenerTimer(OUTCOME_FAILED);
+		bytesIn = bytesCounter("in");
+		bytesOut = bytesCounter("out");
+		sessionBytesIn = sessionBytesSummary("in");
+		sessionBytesOut = sessionBytesSummary("out");
+		readsPaused = Arrays.stream(ReadPauseController.Reason.values())
+			.map(reason -> Timer.builder(READS_PAUSED)
+				.description("Time spent not reading from CIMD sessions, by reason")
+				.tag("reason", reason.tag())
+				.register(meterRegistry))
+			.toArray(Timer[]::new);
+		reassemblyExpired = reassemblyIncompleteCounter("timeout");
+		reassemblyDiscarded = reassemblyIncompleteCounter("reference-reused");
+	}
+
+	/**
+	 * Creates metrics that aren't published anywhere.
+	 */
+	static CIMDMetrics noop() {
+		return new CIMDMetrics(new CompositeMeterRegistry());
+	}
+
+	void gaugeActiveSessions(final Supplier<Number> activeSessions) {
+		Gauge.builder(SESSIONS_ACTIVE, activeSessions)
+			.description("Number of open CIMD sessions")
+			.register(meterRegistry);
+	}
+
+	void gaugeListenerInFlight(final Supplier<Number> inFlight) {
+		Gauge.builder(LISTENER_IN_FLIGHT, inFlight)
+			.description("Number of messages currently being handled by the listener")
+			.register(meterRegistry);
+	}
+
+	void gaugeReassemblyPending(final Supplier<Number> messages, final Supplier<Number> parts) {
+		Gauge.builder(REASSEMBLY_PENDING_MESSAGES, messages)
+			.description("Number of concatenated messages waiting for more parts")
+			.register(meterRegistry);
+		Gauge.builder(REASSEMBLY_PENDING_PARTS, parts)
+			.description("Number of parts of concatenated messages waiting for the remaining parts")
+			.register(meterRegistry);
+	}
+
+	void packetReceived(final int operationCode) {
+		var counter = packetsReceived.get(operationCode);
+		if (counter == null) {
+			// Registering the same counter twice is harmless, as the registry hands back the existing one
+			counter = Counter.builder(PACKETS_RECEIVED)
+				.description("Number of received CIMD packets")
+				.tag("operation", String.format("%02d", operationCode))
+				.register(meterRegistry);
+			packetsReceived.set(operationCode, counter);
+		}
+
+		counter.increment();
+	}
+
+	void decodeError() {
+		decodeErrors.increment();
+	}
+
+	void submitStarted() {
+		submitsInFlight.incrementAndGet();
+	}
+
+	void submitCompleted() {
+		submitsInFlight.decrementAndGet();
+	}
+
+	void submitAccepted() {
+		submitsAccepted.increment();
+	}
+
+	void submitCongested() {
+		submitsCongested.increment();
+	}
+
+	void submitFailed() {
+		submitsFailed.increment();
+	}
+
+	void submitRateLimited() {
+		submitsRateLimited.increment();
+	}
+
+	Timer.Sample startListenerTimer() {
+		return Timer.start(meterRegistry);
+	}
+
+	void stopListenerTimer(final Timer.Sample sample, final boolean accepted) {
+		sample.stop(accepted ? listenerAccepted : listenerFailed);
+	}
+
+	void bytesRead(final long bytes) {
+		bytesIn.increment(bytes);
+	}
+
+	void bytesWritten(final long bytes) {
+		bytesOut.increment(bytes);
+	}
+
+	void sessionClosed(final long bytesRead, final long bytesWritten) {
+		sessionBytesIn.record(bytesRead);
+		sessionBytesOut.record(bytesWritten);
+	}
+
+	void reassemblyExpired() {
+		reassemblyExpired.increment();
+	}
+
+	void reassemblyDiscarded() {
+		reassemblyDiscarded.increment();
+	}
+
+	void readPaused(final ReadPauseController.Reason reason, final long nanos) {
+		readsPaused[reason.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private Counter submitCounter(final String outcome) {
+		return Counter.builder(SUBMITS)
+			.description("Number of submitted messages, by outcome")
+			.tag("outcome", outcome)
+			.register(meterRegistry);
+	}
+
+	private Timer listenerTimer(final String outcome) {
+		return Timer.builder(LISTENER_DURATION)
+			.description("Time from handing a submitted message to the listener until it is handled")
+			.tag("outcome", outcome)
+			.publishPercentileHistogram()
+			.register(meterRegistry);
+	}
+
+	private Counter bytesCounter(final String direction) {
+		return Counter.builder(BYTES)
+			.description("Number of bytes transferred over CIMD sessions")
+			.baseUnit("bytes")
+			.tag("direction", direction)
+			.register(meterRegistry);
+	}
+
+	private Counter reassemblyIncompleteCounter(final String reason) {
+		return Counter.builder(REASSEMBLY_INCOMPLETE)
+			.description("Number of concatenated messages given up on before all parts arrived, by reason")
+			.tag("reason", reason)
+			.register(meterRegistry);
+	}
+
+	private DistributionSummary sessionBytesSummary(final String direction) {
+		return DistributionSummary.builder(SESSION_BYTES)
+			.description("Number of bytes transferred per CIMD session")
+			.baseUnit("bytes")
+			.tag("direction", direction)
+			.register(meterRegistry);
+	}
+}
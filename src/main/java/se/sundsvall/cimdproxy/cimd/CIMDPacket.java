@@ -1,69 +1,96 @@
 package se.sundsvall.cimdproxy.cimd;
 
-import com.googlecode.jcimd.Packet;
 import com.googlecode.jcimd.Parameter;
-import com.googlecode.jcimd.charset.GsmCharsetProvider;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
+import io.netty.buffer.ByteBuf;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static java.util.Objects.isNull;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
 public class CIMDPacket {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CIMDPacket.class);
 
-	// Since Java SPI doesn't seem to work, because of reasons...
-	private static final Charset CHARSET = new GsmCharsetProvider().charsetForName("GSM");
+	// Information element identifiers of concatenated short messages, with 8-bit and 16-bit reference numbers
+	private static final int IEI_CONCATENATION_8_BIT = 0x00;
+	private static final int IEI_CONCATENATION_16_BIT = 0x08;
 
 	private String destinationAddress;
 	private String userData; // user data un-encoded
+	private DataCodingScheme dataCodingScheme;
+	private Concatenation concatenation;
 
-	public CIMDPacket(final Packet p) {
-		Integer dataCodingScheme = null;
-		String userDataBinary = null;
-
-		for (final Parameter pr : p.getParameters()) {
-			switch (pr.getNumber()) {
-				case Parameter.DESTINATION_ADDRESS -> destinationAddress = pr.getValue();
-				case Parameter.DATA_CODING_SCHEME -> dataCodingScheme = Integer.valueOf(pr.getValue());
-				case Parameter.USER_DATA -> userData = pr.getValue();
-				case Parameter.USER_DATA_BINARY -> {
-					userDataBinary = pr.getValue();
-					userData = decodeUserDataBinary(dataCodingScheme, userDataBinary);
-				}
+	public CIMDPacket(final CIMDPacketView p) {
+		destinationAddress = p.getValue(Parameter.DESTINATION_ADDRESS);
+		userData = p.getValue(Parameter.USER_DATA);
+
+		final var userDataBinary = p.getValueBuffer(Parameter.USER_DATA_BINARY);
+		if (userDataBinary != null) {
+			final var dataCodingSchemeValue = p.getValue(Parameter.DATA_CODING_SCHEME);
+			dataCodingScheme = dataCodingSchemeValue != null ? DataCodingScheme.of(Integer.parseInt(dataCodingSchemeValue)) : null;
+			userData = decodeUserDataBinary(dataCodingSchemeValue, userDataBinary);
+		}
+
+		final var userDataHeader = p.getValue(Parameter.USER_DATA_HEADER);
+		if (userDataHeader != null) {
+			concatenation = decodeConcatenation(userDataHeader);
+		}
+	}
+
+	/**
+	 * Finds the concatenation information element of the given user data header, if any.
+	 */
+	static Concatenation decodeConcatenation(final String userDataHeader) {
+		final byte[] header;
+		try {
+			header = Hex.decodeHex(userDataHeader.toCharArray());
+		} catch (final DecoderException e) {
+			LOG.info("Failed to decode user data header: " + userDataHeader, e);
+			return null;
+		}
+
+		// Skip the length of the header, unless left out
+		var offset = header.length > 0 && (header[0] & 0xFF) == header.length - 1 ? 1 : 0;
+		while (offset + 2 <= header.length) {
+			final var identifier = header[offset] & 0xFF;
+			final var length = header[offset + 1] & 0xFF;
+			final var data = offset + 2;
+			if (data + length > header.length) {
+				break;
+			}
+
+			if (identifier == IEI_CONCATENATION_8_BIT && length == 3) {
+				return new Concatenation(header[data] & 0xFF, header[data + 1] & 0xFF, header[data + 2] & 0xFF);
+			}
+			if (identifier == IEI_CONCATENATION_16_BIT && length == 4) {
+				return new Concatenation(((header[data] & 0xFF) << 8) | (header[data + 1] & 0xFF), header[data + 2] & 0xFF, header[data + 3] & 0xFF);
 			}
+
+			offset = data + length;
 		}
+
+		return null;
 	}
 
-	private String decodeUserDataBinary(final Integer dataCodingScheme, final String userDataBinary) {
+	private String decodeUserDataBinary(final String dataCodingSchemeValue, final ByteBuf userDataBinary) {
 		if (dataCodingScheme == null) {
 			LOG.info("Data coding scheme not specified for user binary data");
 
-			return userDataBinary;
+			return userDataBinary.toString(ISO_8859_1);
 		}
-		if (dataCodingScheme == 0) {
-			CharBuffer cb = null;
-			try {
-				final CharsetDecoder decoder = CHARSET.newDecoder();
-				final byte[] encHex = Hex.decodeHex(userDataBinary.toCharArray());
-				cb = decoder.decode(ByteBuffer.wrap(encHex));
-			} catch (DecoderException | CharacterCodingException e) {
-				LOG.info("Failed to decode user data: " + userDataBinary, e);
-			}
-			if (isNull(cb)) {
-				return "";
-			}
-			return new String(cb.array());
+		if (!dataCodingScheme.isSupported()) {
+			LOG.info("Unsupported data coding scheme: {}", dataCodingSchemeValue);
+
+			return userDataBinary.toString(ISO_8859_1);
+		}
+		try {
+			return UserDataDecoder.decode(dataCodingScheme, userDataBinary);
+		} catch (final IllegalArgumentException e) {
+			LOG.info("Failed to decode user data: " + userDataBinary.toString(ISO_8859_1), e);
+			return "";
 		}
-		LOG.info("Unsupported data coding scheme: {}", dataCodingScheme);
-		return userDataBinary;
 	}
 
 	public String getDestinationAddress() {
@@ -73,4 +100,31 @@ public class CIMDPacket {
 	public String getUserData() {
 		return userData;
 	}
+
+	/**
+	 * Returns the data coding scheme of the binary user data.
+	 *
+	 * @return the data coding scheme, or {@code null} if not given
+	 */
+	public DataCodingScheme getDataCodingScheme() {
+		return dataCodingScheme;
+	}
+
+	/**
+	 * Returns where in a concatenated message this part belongs, as given by the user data header.
+	 *
+	 * @return the concatenation, or {@code null} if not part of a concatenated message
+	 */
+	public Concatenation getConcatenation() {
+		return concatenation;
+	}
+
+	/**
+	 * Part of a concatenated message.
+	 *
+	 * @param reference the reference number of the message, shared by all its parts
+	 * @param total     the number of parts of the message
+	 * @param sequence  the number of the part, starting at 1
+	 */
+	public record Concatenation(int reference, int total, int sequence) {}
 }
@@ -1,64 +1,214 @@
 package se.sundsvall.cimdproxy.cimd;
 
-import com.googlecode.jcimd.Packet;
-import com.googlecode.jcimd.PacketSerializer;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
-import java.io.IOException;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.ByteProcessor;
+import java.util.Arrays;
 import java.util.List;
 
+import static com.googlecode.jcimd.PacketSerializer.COLON;
+import static com.googlecode.jcimd.PacketSerializer.ETX;
+import static com.googlecode.jcimd.PacketSerializer.NUL;
+import static com.googlecode.jcimd.PacketSerializer.STX;
+import static com.googlecode.jcimd.PacketSerializer.TAB;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
 /**
  * CIMD packet decoder.
+ * <p>
+ * Packets are parsed straight from the cumulation buffer: the frame is located by searching for the &lt;ETX&gt; and
+ * &lt;STX&gt; bytes, the checksum is validated in place and the operation code, sequence number and parameter offsets are
+ * read without copying the frame into any intermediate stream or array. Decoded packets are emitted as
+ * {@link CIMDPacketView}s holding a retained slice of the frame, which must be released by whoever handles them.
  */
 public class CIMDPacketDecoder extends ByteToMessageDecoder {
 
-	private enum Token {
-		STX((byte) 2),
-		ETX((byte) 3);
+	/** Maximum packet size, same as the default in {@link com.googlecode.jcimd.PacketSerializer}. */
+	static final int MAX_PACKET_SIZE = 1024 * 4;
 
-		private final byte val;
+	/** Room for the parameters of a typical submit, growing if needed. */
+	private static final int INITIAL_PARAMETER_CAPACITY = 8;
 
-		Token(final byte b) {
-			val = b;
-		}
-	}
+	/** Stops at the first byte that isn't an ASCII digit. */
+	private static final ByteProcessor FIND_NON_DIGIT = b -> b >= '0' && b <= '9';
+
+	/**
+	 * Stops at the end of a parameter value, i.e. at a &lt;TAB&gt; or at any of the reserved characters 0x00 (NUL), 0x02
+	 * (STX) and 0x03 (ETX) that are not allowed in any parameter.
+	 */
+	private static final ByteProcessor FIND_END_OF_VALUE = b -> b != TAB && b != NUL && b != STX && b != ETX;
 
 	private final boolean useChecksum;
+	private final CIMDMetrics metrics;
+	private final ChecksumProcessor checksumProcessor = new ChecksumProcessor();
 
 	public CIMDPacketDecoder(final boolean useChecksum) {
+		this(useChecksum, CIMDMetrics.noop());
+	}
+
+	CIMDPacketDecoder(final boolean useChecksum, final CIMDMetrics metrics) {
 		this.useChecksum = useChecksum;
+		this.metrics = metrics;
 	}
 
 	@Override
 	protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) throws Exception {
-		final var packet = doDecode(in);
+		final CIMDPacketView packet;
+		try {
+			packet = doDecode(in);
+		} catch (final DecoderException e) {
+			metrics.decodeError();
+			throw e;
+		}
 
 		if (packet != null) {
+			metrics.packetReceived(packet.getOperationCode());
 			out.add(packet);
 		}
 	}
 
-	protected Packet doDecode(final ByteBuf in) throws IOException {
+	protected CIMDPacketView doDecode(final ByteBuf in) {
 		final var start = in.readerIndex();
+		final var etx = in.indexOf(start, in.writerIndex(), ETX);
+
+		if (etx < 0) {
+			if (in.readableBytes() > MAX_PACKET_SIZE) {
+				// Protect from buffer overflow
+				final var discarded = in.readableBytes();
+				in.skipBytes(discarded);
+				throw new TooLongFrameException("Buffer overflow reached at " + discarded + " byte(s) and still no <ETX> byte");
+			}
+
+			return null;
+		}
+
+		// Consume the frame up front, so that a malformed packet is skipped rather than re-read
+		in.readerIndex(etx + 1);
 
-		while (in.readableBytes() > 0) {
-			in.markReaderIndex();
-			final var c = in.readByte();
-			if (c == Token.ETX.val) {
-				final var pos = in.readerIndex();
-
-				try (var inputStream = new ByteBufInputStream(in.slice(start, pos))) {
-					return PacketSerializer.deserializePacket(inputStream, useChecksum);
-				} finally {
-					in.readerIndex(pos);
-				}
+		// Any data transmitted between packets SHALL be ignored
+		final var stx = in.indexOf(start, etx, STX);
+		if (stx < 0) {
+			throw new CorruptedFrameException("Reached <ETX> byte and still no <STX> byte");
+		}
+
+		var end = etx;
+		if (useChecksum) {
+			// The two bytes just before the ETX byte hold the checksum
+			end = etx - 2;
+			if (end <= stx) {
+				throw new CorruptedFrameException("Packet too short to hold a checksum");
 			}
+			verifyChecksum(in, stx, end);
+		}
+
+		return parse(in, stx, end, etx);
+	}
+
+	private void verifyChecksum(final ByteBuf in, final int stx, final int end) {
+		final var high = Character.digit(in.getByte(end), 16);
+		final var low = Character.digit(in.getByte(end + 1), 16);
+		if (high < 0 || low < 0) {
+			throw new CorruptedFrameException("Checksum error: expecting HEX digits, but got "
+				+ (char) in.getByte(end) + (char) in.getByte(end + 1));
 		}
 
-		in.readerIndex(start);
+		checksumProcessor.sum = 0;
+		in.forEachByte(stx, end - stx, checksumProcessor);
 
-		return null;
+		final var checksum = (high << 4) | low;
+		if (checksum != checksumProcessor.sum) {
+			throw new CorruptedFrameException("Checksum error: expecting " + checksumProcessor.sum + " but got " + checksum);
+		}
+	}
+
+	/**
+	 * Parses the packet starting with the STX byte at the given index and ending just before the given index, i.e. minus
+	 * CC (checksum) and ETX. Parameter values are only indexed, relative to the STX byte, not read.
+	 */
+	private static CIMDPacketView parse(final ByteBuf in, final int stx, final int to, final int etx) {
+		// Read the operation code and packet number
+		var end = findEndOfNumber(in, stx + 1, to, 2, COLON);
+		final var operationCode = parseNumber(in, stx + 1, end);
+		var i = end + 1;
+		end = findEndOfNumber(in, i, to, 3, TAB);
+		final var sequenceNumber = parseNumber(in, i, end);
+		i = end + 1;
+
+		// Index the parameters
+		var parameterIndex = new int[INITIAL_PARAMETER_CAPACITY * 3];
+		var parameterCount = 0;
+		while (i < to) {
+			end = findEndOfNumber(in, i, to, 3, COLON);
+			final var parameterType = parseNumber(in, i, end);
+			i = end + 1;
+
+			end = in.forEachByte(i, to - i, FIND_END_OF_VALUE);
+			if (end < 0 || in.getByte(end) != TAB) {
+				throw unexpected(in, end, TAB);
+			}
+
+			if (parameterCount * 3 == parameterIndex.length) {
+				parameterIndex = Arrays.copyOf(parameterIndex, parameterIndex.length * 2);
+			}
+			parameterIndex[parameterCount * 3] = parameterType;
+			parameterIndex[parameterCount * 3 + 1] = i - stx;
+			parameterIndex[parameterCount * 3 + 2] = end - i;
+			parameterCount++;
+			i = end + 1;
+		}
+
+		if (operationCode <= 0 || operationCode > 99) {
+			throw new CorruptedFrameException("Operation code must be between 1 and 99, but got " + operationCode);
+		}
+
+		return new CIMDPacketView(in.retainedSlice(stx, etx + 1 - stx), operationCode, sequenceNumber, parameterIndex, parameterCount);
+	}
+
+	/**
+	 * Returns the index of the delimiter ending the number starting at the given index, making sure that there are at
+	 * most the given number of digits before it.
+	 */
+	private static int findEndOfNumber(final ByteBuf in, final int from, final int to, final int maxDigits, final byte delimiter) {
+		final var end = in.forEachByte(from, Math.min(maxDigits + 1, to - from), FIND_NON_DIGIT);
+		if (end <= from || in.getByte(end) != delimiter) {
+			throw unexpected(in, end, delimiter);
+		}
+
+		return end;
+	}
+
+	private static int parseNumber(final ByteBuf in, final int from, final int to) {
+		var number = 0;
+		for (var i = from; i < to; i++) {
+			number = number * 10 + (in.getByte(i) - '0');
+		}
+
+		return number;
+	}
+
+	private static CorruptedFrameException unexpected(final ByteBuf in, final int index, final byte delimiter) {
+		if (index < 0) {
+			return new CorruptedFrameException("Expecting 0x" + Integer.toHexString(delimiter) + " but reached end of packet");
+		}
+
+		return new CorruptedFrameException("Expecting 0x" + Integer.toHexString(delimiter) + " but got 0x" + Integer.toHexString(in.getByte(index)));
+	}
+
+	/**
+	 * Sums bytes modulo 256, as described by the CIMD checksum algorithm.
+	 */
+	private static final class ChecksumProcessor implements ByteProcessor {
+
+		private int sum;
+
+		@Override
+		public boolean process(final byte value) {
+			sum = (sum + value) & 0xFF;
+			return true;
+		}
 	}
 }
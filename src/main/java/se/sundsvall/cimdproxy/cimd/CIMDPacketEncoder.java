@@ -1,45 +1,174 @@
 package se.sundsvall.cimdproxy.cimd;
 
 import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.PacketSequenceNumberGenerator;
+import com.googlecode.jcimd.Parameter;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import se.sundsvall.cimdproxy.cimd.util.SessionUtil;
 
-import static com.googlecode.jcimd.PacketSerializer.serializePacket;
+import static com.googlecode.jcimd.PacketSerializer.COLON;
+import static com.googlecode.jcimd.PacketSerializer.ETX;
+import static com.googlecode.jcimd.PacketSerializer.STX;
+import static com.googlecode.jcimd.PacketSerializer.TAB;
 import static se.sundsvall.cimdproxy.cimd.util.SessionUtil.getPacketSequenceNumberGenerator;
 
 /**
  * CIMD packet encoder.
+ * <p>
+ * Packets are written straight into an exactly sized buffer, accumulating the checksum while writing, so that no
+ * intermediate copies are made and the buffer never has to be expanded. Responses without parameters are copied from
+ * frames encoded up front, see {@link CIMDFixedResponse}.
  */
 public class CIMDPacketEncoder extends MessageToByteEncoder<Object> {
 
+	private static final byte[] HEX_DIGITS = {
+		'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
+	};
+
+	/** &lt;STX&gt;ZZ:NNN&lt;TAB&gt; */
+	private static final int HEADER_LENGTH = 8;
+	/** PPP:&lt;TAB&gt;, excluding the parameter value */
+	private static final int PARAMETER_OVERHEAD = 5;
+
 	private final boolean useChecksum;
 
-	private Session session;
+	private PacketSequenceNumberGenerator sequenceNumberGenerator;
 
 	public CIMDPacketEncoder(final boolean useChecksum) {
 		this.useChecksum = useChecksum;
 	}
 
 	@Override
-	protected void encode(final ChannelHandlerContext ctx, final Object msg, final ByteBuf out) throws Exception {
+	protected ByteBuf allocateBuffer(final ChannelHandlerContext ctx, final Object msg, final boolean preferDirect) {
+		final int length;
+		if (msg instanceof final Packet packet) {
+			length = encodedLength(packet.getParameters(), useChecksum);
+		} else if (msg instanceof final CIMDFixedResponse response) {
+			length = response.operation().frame(useChecksum).length;
+		} else {
+			length = ByteBufUtil.utf8Bytes(msg.toString());
+		}
 
-		try (var os = new ByteBufOutputStream(out)) {
+		return preferDirect ? ctx.alloc().ioBuffer(length) : ctx.alloc().heapBuffer(length);
+	}
 
-			if (msg instanceof final Packet packet) {
-				serializePacket(packet, getPacketSequenceNumberGenerator(session), useChecksum, os);
-			} else {
-				os.write(msg.toString().getBytes());
-			}
+	@Override
+	protected void encode(final ChannelHandlerContext ctx, final Object msg, final ByteBuf out) {
+		if (msg instanceof final Packet packet) {
+			final var sequenceNumber = packet.getSequenceNumber() != null
+				? packet.getSequenceNumber()
+				: sequenceNumberGenerator.nextSequence();
 
-			os.flush();
+			writePacket(packet.getOperationCode(), sequenceNumber, packet.getParameters(), useChecksum, out);
+		} else if (msg instanceof final CIMDFixedResponse response) {
+			writeFixedResponse(response, useChecksum, out);
+		} else {
+			ByteBufUtil.writeUtf8(out, msg.toString());
 		}
 	}
 
 	@Override
 	public void handlerAdded(final ChannelHandlerContext ctx) {
-		session = SessionUtil.getSession(ctx.channel());
+		sequenceNumberGenerator = getPacketSequenceNumberGenerator(SessionUtil.getSession(ctx.channel()));
+	}
+
+	/**
+	 * Returns the exact number of bytes needed to encode a packet with the given parameters. Parameter values are
+	 * assumed to only contain ASCII characters, as in {@link com.googlecode.jcimd.PacketSerializer}.
+	 */
+	static int encodedLength(final Parameter[] parameters, final boolean useChecksum) {
+		var length = HEADER_LENGTH;
+		for (final var parameter : parameters) {
+			length += PARAMETER_OVERHEAD + parameter.getValue().length();
+		}
+
+		// CC<ETX>
+		return length + (useChecksum ? 3 : 1);
+	}
+
+	static void writePacket(final int operationCode, final int sequenceNumber, final Parameter[] parameters, final boolean useChecksum, final ByteBuf out) {
+		out.writeByte(STX);
+		var checksum = STX + writeDigits(operationCode, 2, out);
+		out.writeByte(COLON);
+		checksum += COLON + writeDigits(sequenceNumber, 3, out);
+		out.writeByte(TAB);
+		checksum += TAB;
+
+		for (final var parameter : parameters) {
+			checksum += writeDigits(parameter.getNumber(), 3, out);
+			out.writeByte(COLON);
+			checksum += COLON + writeAscii(parameter.getValue(), out);
+			out.writeByte(TAB);
+			checksum += TAB;
+		}
+
+		if (useChecksum) {
+			writeChecksum(checksum, out);
+		}
+		out.writeByte(ETX);
+	}
+
+	static void writeFixedResponse(final CIMDFixedResponse response, final boolean useChecksum, final ByteBuf out) {
+		final var operation = response.operation();
+		final var start = out.writerIndex();
+		out.writeBytes(operation.frame(useChecksum));
+
+		// Patch in the sequence number, least significant digit first, and the checksum along with it
+		var sequenceNumber = response.sequenceNumber();
+		var checksum = operation.checksum();
+		for (var i = CIMDFixedResponse.SEQUENCE_NUMBER_OFFSET + 2; i >= CIMDFixedResponse.SEQUENCE_NUMBER_OFFSET; i--) {
+			final var digit = '0' + sequenceNumber % 10;
+			out.setByte(start + i, digit);
+			checksum += digit;
+			sequenceNumber /= 10;
+		}
+
+		if (useChecksum) {
+			out.setByte(start + CIMDFixedResponse.CHECKSUM_OFFSET, HEX_DIGITS[(checksum >> 4) & 0x0F]);
+			out.setByte(start + CIMDFixedResponse.CHECKSUM_OFFSET + 1, HEX_DIGITS[checksum & 0x0F]);
+		}
+	}
+
+	static void writeChecksum(final int checksum, final ByteBuf out) {
+		out.writeByte(HEX_DIGITS[(checksum >> 4) & 0x0F]);
+		out.writeByte(HEX_DIGITS[checksum & 0x0F]);
+	}
+
+	/**
+	 * Writes the given number as (zero-padded) ASCII digits, returning the sum of the written bytes.
+	 */
+	static int writeDigits(final int value, final int width, final ByteBuf out) {
+		var divisor = 1;
+		for (var i = 1; i < width; i++) {
+			divisor *= 10;
+		}
+
+		var sum = 0;
+		for (var i = 0; i < width; i++) {
+			final var digit = '0' + (value / divisor) % 10;
+			out.writeByte(digit);
+			sum += digit;
+			divisor /= 10;
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Writes the given string as ASCII bytes, ignoring the high-order bits of each character, returning the sum of the
+	 * written bytes.
+	 */
+	private static int writeAscii(final String value, final ByteBuf out) {
+		var sum = 0;
+		for (var i = 0; i < value.length(); i++) {
+			final var b = (byte) value.charAt(i);
+			out.writeByte(b);
+			sum += b;
+		}
+
+		return sum;
 	}
 }
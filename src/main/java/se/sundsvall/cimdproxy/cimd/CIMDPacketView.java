@@ -0,0 +1,132 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.Parameter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * Read-only view of a received CIMD packet.
+ * <p>
+ * The view holds on to the frame buffer and an index of where each parameter value is located in it, and only
+ * materializes parameter values as strings when they are asked for. Being a {@link io.netty.buffer.ByteBufHolder}, the
+ * view must be released once handled, and parameter values must be read before that.
+ */
+public class CIMDPacketView extends DefaultByteBufHolder {
+
+	private final int operationCode;
+	private final int sequenceNumber;
+	// Parameter number, value offset and value length, for each parameter in the order received
+	private final int[] parameterIndex;
+	private final int parameterCount;
+
+	CIMDPacketView(final ByteBuf frame, final int operationCode, final int sequenceNumber, final int[] parameterIndex, final int parameterCount) {
+		super(frame);
+		this.operationCode = operationCode;
+		this.sequenceNumber = sequenceNumber;
+		this.parameterIndex = parameterIndex;
+		this.parameterCount = parameterCount;
+	}
+
+	public int getOperationCode() {
+		return operationCode;
+	}
+
+	public int getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	public int getParameterCount() {
+		return parameterCount;
+	}
+
+	public int getParameterNumber(final int index) {
+		return parameterIndex[index * 3];
+	}
+
+	public boolean hasParameter(final int number) {
+		return indexOf(number) >= 0;
+	}
+
+	/**
+	 * Returns the value of the first parameter with the given number.
+	 *
+	 * @param  number the parameter number
+	 * @return        the parameter value, or {@code null} if the packet has no such parameter
+	 */
+	public String getValue(final int number) {
+		final var index = indexOf(number);
+
+		return index < 0 ? null : valueAt(index);
+	}
+
+	/**
+	 * Returns the raw value of the first parameter with the given number, without copying it. The returned buffer
+	 * shares the frame buffer of this view, and so must not be used once the view is released.
+	 *
+	 * @param  number the parameter number
+	 * @return        the parameter value, or {@code null} if the packet has no such parameter
+	 */
+	public ByteBuf getValueBuffer(final int number) {
+		final var index = indexOf(number);
+
+		return index < 0 ? null : content().slice(parameterIndex[index * 3 + 1], parameterIndex[index * 3 + 2]);
+	}
+
+	/**
+	 * Materializes this view as a {@link Packet}, with all parameter values.
+	 *
+	 * @return the packet
+	 */
+	public Packet toPacket() {
+		final var parameters = new Parameter[parameterCount];
+		for (var i = 0; i < parameterCount; i++) {
+			parameters[i] = new Parameter(getParameterNumber(i), valueAt(i));
+		}
+
+		return new Packet(operationCode, sequenceNumber, parameters);
+	}
+
+	private int indexOf(final int number) {
+		for (var i = 0; i < parameterCount; i++) {
+			if (parameterIndex[i * 3] == number) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private String valueAt(final int index) {
+		return content().toString(parameterIndex[index * 3 + 1], parameterIndex[index * 3 + 2], ISO_8859_1);
+	}
+
+	@Override
+	public CIMDPacketView replace(final ByteBuf content) {
+		return new CIMDPacketView(content, operationCode, sequenceNumber, parameterIndex, parameterCount);
+	}
+
+	@Override
+	public String toString() {
+		final var builder = new StringBuilder("<STX>");
+		appendDigits(builder, operationCode, 2).append(':');
+		appendDigits(builder, sequenceNumber, 3).append("<TAB>");
+		for (var i = 0; i < parameterCount; i++) {
+			final var number = getParameterNumber(i);
+			appendDigits(builder, number, 3).append(':');
+			// Do not show password parameter
+			builder.append(number == Parameter.PASSWORD ? "<password-not-shown>" : valueAt(i)).append("<TAB>");
+		}
+
+		return builder.append("<ETX>").toString();
+	}
+
+	private static StringBuilder appendDigits(final StringBuilder builder, final int value, final int width) {
+		final var digits = Integer.toString(value);
+		builder.repeat('0', Math.max(0, width - digits.length()));
+
+		return builder.append(digits);
+	}
+}
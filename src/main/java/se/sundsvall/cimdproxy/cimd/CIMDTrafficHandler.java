@@ -0,0 +1,51 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Counts the bytes read and written by a CIMD session, as seen on the wire.
+ */
+class CIMDTrafficHandler extends ChannelDuplexHandler {
+
+	private final CIMDMetrics metrics;
+
+	// Only ever accessed from the event loop of the channel
+	private long bytesRead;
+	private long bytesWritten;
+
+	CIMDTrafficHandler(final CIMDMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+		if (msg instanceof final ByteBuf buf) {
+			final var bytes = buf.readableBytes();
+			bytesRead += bytes;
+			metrics.bytesRead(bytes);
+		}
+
+		ctx.fireChannelRead(msg);
+	}
+
+	@Override
+	public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+		if (msg instanceof final ByteBuf buf) {
+			final var bytes = buf.readableBytes();
+			bytesWritten += bytes;
+			metrics.bytesWritten(bytes);
+		}
+
+		ctx.write(msg, promise);
+	}
+
+	@Override
+	public void channelInactive(final ChannelHandlerContext ctx) {
+		metrics.sessionClosed(bytesRead, bytesWritten);
+
+		ctx.fireChannelInactive();
+	}
+}
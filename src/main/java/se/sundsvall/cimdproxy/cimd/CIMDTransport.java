@@ -0,0 +1,104 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties;
+
+/**
+ * Netty transports the CIMD server can run on.
+ */
+enum CIMDTransport {
+
+	NIO(NioServerSocketChannel.class) {
+
+		@Override
+		boolean isAvailable() {
+			return true;
+		}
+
+		@Override
+		IoHandlerFactory newIoHandlerFactory() {
+			return NioIoHandler.newFactory();
+		}
+	},
+
+	EPOLL(EpollServerSocketChannel.class) {
+
+		@Override
+		boolean isAvailable() {
+			return Epoll.isAvailable();
+		}
+
+		@Override
+		IoHandlerFactory newIoHandlerFactory() {
+			return EpollIoHandler.newFactory();
+		}
+	},
+
+	IO_URING(IoUringServerSocketChannel.class) {
+
+		@Override
+		boolean isAvailable() {
+			return IoUring.isAvailable();
+		}
+
+		@Override
+		IoHandlerFactory newIoHandlerFactory() {
+			return IoUringIoHandler.newFactory();
+		}
+	};
+
+	private static final Logger LOG = LoggerFactory.getLogger(CIMDTransport.class);
+
+	private final Class<? extends ServerSocketChannel> serverChannelClass;
+
+	CIMDTransport(final Class<? extends ServerSocketChannel> serverChannelClass) {
+		this.serverChannelClass = serverChannelClass;
+	}
+
+	abstract boolean isAvailable();
+
+	abstract IoHandlerFactory newIoHandlerFactory();
+
+	Class<? extends ServerSocketChannel> serverChannelClass() {
+		return serverChannelClass;
+	}
+
+	/**
+	 * Resolves the transport to use. {@code AUTO} picks epoll when available (io_uring is opt-in, since it's commonly
+	 * blocked in containers), and an explicitly requested transport that isn't available falls back to the best one
+	 * that is.
+	 *
+	 * @param  transport the configured transport
+	 * @return           the transport to use
+	 */
+	static CIMDTransport resolve(final CIMDProperties.Transport transport) {
+		final var requested = switch (transport) {
+			case AUTO -> EPOLL;
+			case NIO -> NIO;
+			case EPOLL -> EPOLL;
+			case IO_URING -> IO_URING;
+		};
+
+		if (requested.isAvailable()) {
+			return requested;
+		}
+
+		final var fallback = EPOLL.isAvailable() ? EPOLL : NIO;
+		if (transport != CIMDProperties.Transport.AUTO) {
+			LOG.warn("CIMD transport {} not available on this platform, falling back to {}", requested, fallback);
+		}
+
+		return fallback;
+	}
+}
@@ -0,0 +1,54 @@
+package se.sundsvall.cimdproxy.cimd;
+
+/**
+ * Data coding scheme of a short message, as of GSM 03.38.
+ *
+ * @param alphabet     the alphabet of the user data
+ * @param compressed   whether the user data is compressed
+ * @param messageClass the message class, 0 (flash) to 3, or {@code null} if none
+ */
+public record DataCodingScheme(Alphabet alphabet, boolean compressed, Integer messageClass) {
+
+	// In the order of their values in the general data coding groups
+	public enum Alphabet {
+		GSM_7BIT,
+		GSM_8BIT,
+		UCS2,
+		RESERVED
+	}
+
+	/**
+	 * Interprets the given data coding scheme.
+	 *
+	 * @param  value the data coding scheme, as an octet
+	 * @return       the data coding scheme
+	 */
+	public static DataCodingScheme of(final int value) {
+		final var group = (value >> 4) & 0x0F;
+		final var messageClass = value & 0x03;
+
+		return switch (group) {
+			// General data coding, possibly marked for automatic deletion, with the message class only meaningful when told
+			case 0x0, 0x1, 0x2, 0x3, 0x4, 0x5, 0x6, 0x7 -> new DataCodingScheme(
+				Alphabet.values()[(value >> 2) & 0x03],
+				(value & 0x20) != 0,
+				(value & 0x10) != 0 ? messageClass : null);
+			// Message waiting indication
+			case 0xC, 0xD -> new DataCodingScheme(Alphabet.GSM_7BIT, false, null);
+			case 0xE -> new DataCodingScheme(Alphabet.UCS2, false, null);
+			// Data coding and message class
+			case 0xF -> new DataCodingScheme((value & 0x04) != 0 ? Alphabet.GSM_8BIT : Alphabet.GSM_7BIT, false, messageClass);
+			default -> new DataCodingScheme(Alphabet.RESERVED, false, null);
+		};
+	}
+
+	/**
+	 * Returns whether user data of this data coding scheme can be decoded, i.e. isn't compressed and is of a known
+	 * alphabet.
+	 *
+	 * @return whether user data of this data coding scheme can be decoded
+	 */
+	public boolean isSupported() {
+		return !compressed && alphabet != Alphabet.RESERVED;
+	}
+}
@@ -0,0 +1,92 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import io.netty.channel.Channel;
+
+/**
+ * Turns reading from a channel off while there's any reason not to read, and back on once there is none.
+ * <p>
+ * Each reason is a bit of its own, so that reasons can come and go independently of each other. Only ever used from the
+ * event loop of the channel, or handed off to it.
+ */
+final class ReadPauseController {
+
+	enum Reason {
+		/** The outbound buffer of the channel is above its high watermark. */
+		UNWRITABLE("unwritable"),
+		/** The session has too many submits in flight. */
+		IN_FLIGHT("in-flight"),
+		/** The session is above its submit rate limit. */
+		RATE_LIMITED("rate-limited");
+
+		private final String tag;
+
+		Reason(final String tag) {
+			this.tag = tag;
+		}
+
+		String tag() {
+			return tag;
+		}
+
+		private int bit() {
+			return 1 << ordinal();
+		}
+	}
+
+	private final Channel channel;
+	private final CIMDMetrics metrics;
+	// When each reason started, by ordinal
+	private final long[] pausedAt = new long[Reason.values().length];
+
+	private int reasons;
+
+	ReadPauseController(final Channel channel, final CIMDMetrics metrics) {
+		this.channel = channel;
+		this.metrics = metrics;
+	}
+
+	void pause(final Reason reason) {
+		if (!channel.eventLoop().inEventLoop()) {
+			channel.eventLoop().execute(() -> pause(reason));
+			return;
+		}
+		if ((reasons & reason.bit()) != 0) {
+			return;
+		}
+
+		if (reasons == 0) {
+			channel.config().setAutoRead(false);
+		}
+		reasons |= reason.bit();
+		pausedAt[reason.ordinal()] = System.nanoTime();
+	}
+
+	void resume(final Reason reason) {
+		if (!channel.eventLoop().inEventLoop()) {
+			channel.eventLoop().execute(() -> resume(reason));
+			return;
+		}
+		if ((reasons & reason.bit()) == 0) {
+			return;
+		}
+
+		reasons &= ~reason.bit();
+		metrics.readPaused(reason, System.nanoTime() - pausedAt[reason.ordinal()]);
+		if (reasons == 0) {
+			channel.config().setAutoRead(true);
+		}
+	}
+
+	boolean isPaused(final Reason reason) {
+		return (reasons & reason.bit()) != 0;
+	}
+
+	/**
+	 * Records the time spent paused for the reasons still in effect, e.g. as the channel is closed.
+	 */
+	void close() {
+		for (final var reason : Reason.values()) {
+			resume(reason);
+		}
+	}
+}
@@ -17,16 +17,12 @@ public class Session {
 		return channel.writeAndFlush(msg);
 	}
 
-	public <T> void setAttribute(final String name, final T value) {
-		var sessionIdKey = AttributeKey.valueOf(name);
-
-		channel.attr(sessionIdKey).set(value);
+	public <T> void setAttribute(final AttributeKey<T> key, final T value) {
+		channel.attr(key).set(value);
 	}
 
-	public <T> T getAttribute(final String name) {
-		AttributeKey<T> sessionIdKey = AttributeKey.valueOf(name);
-
-		return channel.attr(sessionIdKey).get();
+	public <T> T getAttribute(final AttributeKey<T> key) {
+		return channel.attr(key).get();
 	}
 
 	public ChannelId getId() {
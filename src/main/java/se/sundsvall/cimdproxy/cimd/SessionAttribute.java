@@ -1,7 +1,18 @@
 package se.sundsvall.cimdproxy.cimd;
 
-public enum SessionAttribute {
+import com.googlecode.jcimd.PacketSequenceNumberGenerator;
+import io.netty.util.AttributeKey;
 
-	USER_ID,
-	CIMD_PACKET_SEQUENCE_GENERATOR
+/**
+ * Typed keys for the attributes of a {@link Session}, created once so that accessing an attribute never has to look the
+ * key up by name.
+ */
+public final class SessionAttribute {
+
+	public static final AttributeKey<Session> SESSION = AttributeKey.valueOf("SESSION");
+	public static final AttributeKey<String> USER_ID = AttributeKey.valueOf("USER_ID");
+	public static final AttributeKey<PacketSequenceNumberGenerator> CIMD_PACKET_SEQUENCE_GENERATOR = AttributeKey.valueOf("CIMD_PACKET_SEQUENCE_GENERATOR");
+	public static final AttributeKey<SubmitWindow> SUBMIT_WINDOW = AttributeKey.valueOf("SUBMIT_WINDOW");
+
+	private SessionAttribute() {}
 }
@@ -0,0 +1,95 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties;
+
+/**
+ * Limits the rate of submits, globally and per user id, shared by all sessions.
+ * <p>
+ * Users are limited by their own configured limit, if any, or else by the default per-user limit. Sessions of the same
+ * user share the same limit.
+ */
+final class SubmitRateLimiter {
+
+	// Key of the bucket shared by sessions that haven't logged in with a user id
+	private static final String ANONYMOUS = "";
+
+	private final CIMDProperties.RateLimit properties;
+	private final LongSupplier nanoClock;
+	private final TokenBucket global;
+	private final Map<String, TokenBucket> users = new ConcurrentHashMap<>();
+
+	SubmitRateLimiter(final CIMDProperties.RateLimit properties) {
+		this(properties, System::nanoTime);
+	}
+
+	SubmitRateLimiter(final CIMDProperties.RateLimit properties, final LongSupplier nanoClock) {
+		this.properties = properties;
+		this.nanoClock = nanoClock;
+
+		global = newBucket(properties.global());
+	}
+
+	boolean isThrottling() {
+		return properties.mode() == CIMDProperties.RateLimit.Mode.THROTTLE;
+	}
+
+	/**
+	 * Takes a token for a submit by the given user, unless the rate of the user, or the global rate, is exceeded.
+	 *
+	 * @param  userId the user id of the session, or {@code null} if not logged in
+	 * @return        {@code true} if the submit is within the rate limits
+	 */
+	boolean tryAcquire(final String userId) {
+		// Check the user first, so that a single user exceeding its own rate doesn't eat into the global one
+		final var user = userBucket(userId);
+		if (user != null && !user.tryAcquire()) {
+			return false;
+		}
+		if (global != null && !global.tryAcquire()) {
+			// The submit is rejected, so it mustn't count against the user either
+			if (user != null) {
+				user.refund();
+			}
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Takes a token for a submit by the given user, whether the rate limits are exceeded or not.
+	 *
+	 * @param  userId the user id of the session, or {@code null} if not logged in
+	 * @return        the number of nanoseconds the session should stay paused to get back within the rate limits
+	 */
+	long reserve(final String userId) {
+		final var user = userBucket(userId);
+		final var userWait = user != null ? user.reserve() : 0;
+		final var globalWait = global != null ? global.reserve() : 0;
+
+		return Math.max(userWait, globalWait);
+	}
+
+	private TokenBucket userBucket(final String userId) {
+		final var key = userId != null ? userId : ANONYMOUS;
+		final var limit = properties.users() != null ? properties.users().getOrDefault(key, properties.perUser()) : properties.perUser();
+		if (limit == null) {
+			return null;
+		}
+
+		return users.computeIfAbsent(key, ignored -> newBucket(limit));
+	}
+
+	private TokenBucket newBucket(final CIMDProperties.RateLimit.Limit limit) {
+		if (limit == null) {
+			return null;
+		}
+
+		// Allow a second's worth of submits at once, unless told otherwise
+		final var burst = limit.burst() > 0 ? limit.burst() : (int) Math.ceil(limit.rate());
+		return new TokenBucket(limit.rate(), burst, nanoClock);
+	}
+}
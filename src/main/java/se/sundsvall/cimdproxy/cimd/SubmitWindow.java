@@ -0,0 +1,51 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Window of in-flight submits for a single session, keyed by CIMD packet sequence number.
+ * <p>
+ * Submits are admitted from the channel's event loop only, while they may be released from any thread, which is why a
+ * plain size check followed by an add is safe here: concurrent releases can only make room.
+ */
+public class SubmitWindow {
+
+	private final int size;
+	private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+
+	public SubmitWindow(final int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Tries to admit the submit with the given sequence number into the window.
+	 *
+	 * @param  sequenceNumber the CIMD packet sequence number of the submit
+	 * @return                {@code true} if the submit was admitted, {@code false} if the window is full or a submit
+	 *                        with the same sequence number is already in flight
+	 */
+	public boolean tryAcquire(final int sequenceNumber) {
+		if (inFlight.size() >= size) {
+			return false;
+		}
+
+		return inFlight.add(sequenceNumber);
+	}
+
+	public void release(final int sequenceNumber) {
+		inFlight.remove(sequenceNumber);
+	}
+
+	public boolean isInFlight(final int sequenceNumber) {
+		return inFlight.contains(sequenceNumber);
+	}
+
+	public int inFlight() {
+		return inFlight.size();
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,74 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket, refilled at a fixed rate up to a maximum burst.
+ * <p>
+ * Rather than counting tokens, the bucket keeps track of the time at which it would be full again had tokens been taken
+ * at the refill rate (the "generic cell rate algorithm"), so that taking a token is a single compare-and-set.
+ */
+final class TokenBucket {
+
+	private final long nanosPerToken;
+	private final long burstNanos;
+	private final LongSupplier nanoClock;
+	// The time at which the bucket is full again
+	private final AtomicLong fullAt;
+
+	TokenBucket(final double tokensPerSecond, final int burst) {
+		this(tokensPerSecond, burst, System::nanoTime);
+	}
+
+	TokenBucket(final double tokensPerSecond, final int burst, final LongSupplier nanoClock) {
+		this.nanoClock = nanoClock;
+
+		nanosPerToken = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+		burstNanos = nanosPerToken * burst;
+		fullAt = new AtomicLong(nanoClock.getAsLong());
+	}
+
+	/**
+	 * Takes a token, if there is one.
+	 *
+	 * @return {@code true} if a token was taken
+	 */
+	boolean tryAcquire() {
+		while (true) {
+			final var now = nanoClock.getAsLong();
+			final var current = fullAt.get();
+			final var next = Math.max(current, now) + nanosPerToken;
+			if (next - now > burstNanos) {
+				return false;
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Takes a token, whether there is one or not.
+	 *
+	 * @return the number of nanoseconds to wait before the token would have been available, zero if it was
+	 */
+	long reserve() {
+		while (true) {
+			final var now = nanoClock.getAsLong();
+			final var current = fullAt.get();
+			final var next = Math.max(current, now) + nanosPerToken;
+			if (fullAt.compareAndSet(current, next)) {
+				return Math.max(0, next - now - burstNanos);
+			}
+		}
+	}
+
+	/**
+	 * Gives back a token taken, as if it never was.
+	 */
+	void refund() {
+		fullAt.addAndGet(-nanosPerToken);
+	}
+}
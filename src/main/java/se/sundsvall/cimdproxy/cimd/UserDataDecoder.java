@@ -0,0 +1,185 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.charset.GsmCharsetProvider;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+import java.util.Arrays;
+
+/**
+ * Decodes hex encoded user data straight into characters, according to its data coding scheme.
+ * <p>
+ * Hex digits, septets and characters are all looked up in tables, in a single pass over the parameter value and without
+ * any intermediate byte or char buffers, other than a char buffer reused per thread. Decoding is otherwise the same as
+ * that of the corresponding charsets: "GSM" and "GSM-8BIT" of {@link GsmCharsetProvider}, and UTF-16BE for UCS-2.
+ */
+final class UserDataDecoder {
+
+	private static final char[] DEFAULT_ALPHABET = GsmCharsetProvider.getDefaultAlphabet();
+	private static final char[] DEFAULT_ALPHABET_EXTENSION = GsmCharsetProvider.getDefaultAlphabetExtension();
+	private static final int ESCAPE = 0x1B;
+
+	// Value of each hex digit, -1 for anything else
+	private static final byte[] HEX_VALUES = new byte[256];
+
+	static {
+		Arrays.fill(HEX_VALUES, (byte) -1);
+		for (var i = 0; i < 10; i++) {
+			HEX_VALUES['0' + i] = (byte) i;
+		}
+		for (var i = 0; i < 6; i++) {
+			HEX_VALUES['A' + i] = (byte) (10 + i);
+			HEX_VALUES['a' + i] = (byte) (10 + i);
+		}
+	}
+
+	// Enough for the longest user data of a single message, buffers needed for anything longer aren't kept
+	private static final int MAX_REUSED_BUFFER_LENGTH = 512;
+	private static final FastThreadLocal<char[]> BUFFER = new FastThreadLocal<>() {
+
+		@Override
+		protected char[] initialValue() {
+			return new char[MAX_REUSED_BUFFER_LENGTH];
+		}
+	};
+
+	private UserDataDecoder() {}
+
+	/**
+	 * Decodes the given hex encoded user data, according to the given data coding scheme.
+	 *
+	 * @param  dataCodingScheme         the data coding scheme of the user data
+	 * @param  hex                      the user data, as hex digits
+	 * @return                          the decoded characters, or {@code null} if the data coding scheme isn't
+	 *                                  supported, see {@link DataCodingScheme#isSupported()}
+	 * @throws IllegalArgumentException if the user data isn't valid hex
+	 */
+	static String decode(final DataCodingScheme dataCodingScheme, final ByteBuf hex) {
+		if (!dataCodingScheme.isSupported()) {
+			return null;
+		}
+
+		return switch (dataCodingScheme.alphabet()) {
+			case GSM_7BIT -> decodeGsm7Bit(hex);
+			case GSM_8BIT -> decodeGsm8Bit(hex);
+			case UCS2 -> decodeUcs2(hex);
+			case RESERVED -> null;
+		};
+	}
+
+	/**
+	 * Decodes packed GSM 7-bit user data. Characters following an escape are looked up in the extension table, and a
+	 * trailing '@' filling up the last octet is dropped.
+	 */
+	static String decodeGsm7Bit(final ByteBuf hex) {
+		final var octets = octets(hex);
+		// Each octet holds 8/7 septets, each of which may turn into two characters if escaped invalidly
+		final var out = buffer(2 * ((octets * 8 + 6) / 7));
+
+		final var start = hex.readerIndex();
+		var data = 0;
+		var bits = 0;
+		var escaped = false;
+		var position = 0;
+		for (var i = 0; i < octets; i++) {
+			data |= octet(hex, start, i) << bits;
+			bits += 8;
+			while (bits >= 7) {
+				final var septet = data & 0x7F;
+				if (septet == ESCAPE) {
+					escaped = true;
+				} else if (escaped) {
+					position = putEscaped(out, position, septet);
+					escaped = false;
+				} else {
+					out[position++] = DEFAULT_ALPHABET[septet];
+				}
+				data >>>= 7;
+				bits -= 7;
+			}
+		}
+
+		// Seven octets hold eight septets, so a trailing '@' (i.e. zero) may just be the padding of seven characters
+		if (position > 0 && position % 8 == 0 && out[position - 1] == '@') {
+			position--;
+		}
+
+		return new String(out, 0, position);
+	}
+
+	/**
+	 * Decodes unpacked GSM 7-bit user data, i.e. a septet per octet, ignoring the high-order bit of each octet.
+	 */
+	static String decodeGsm8Bit(final ByteBuf hex) {
+		final var octets = octets(hex);
+		final var out = buffer(2 * octets);
+
+		final var start = hex.readerIndex();
+		var escaped = false;
+		var position = 0;
+		for (var i = 0; i < octets; i++) {
+			final var septet = octet(hex, start, i) & 0x7F;
+			if (septet == ESCAPE && !escaped) {
+				escaped = true;
+			} else if (escaped) {
+				position = putEscaped(out, position, septet);
+				escaped = false;
+			} else {
+				out[position++] = DEFAULT_ALPHABET[septet];
+			}
+		}
+
+		return new String(out, 0, position);
+	}
+
+	/**
+	 * Decodes UCS-2 user data, as UTF-16BE. A trailing odd octet is ignored.
+	 */
+	static String decodeUcs2(final ByteBuf hex) {
+		final var octets = octets(hex);
+		final var out = buffer(octets / 2);
+
+		final var start = hex.readerIndex();
+		var position = 0;
+		for (var i = 0; i + 1 < octets; i += 2) {
+			out[position++] = (char) ((octet(hex, start, i) << 8) | octet(hex, start, i + 1));
+		}
+
+		return new String(out, 0, position);
+	}
+
+	private static int putEscaped(final char[] out, final int position, final int septet) {
+		final var ch = DEFAULT_ALPHABET_EXTENSION[septet];
+		if (ch != GsmCharsetProvider.NO_GSM_BYTE) {
+			out[position] = ch;
+			return position + 1;
+		}
+
+		// Invalid escape sequence, as a space followed by the character itself
+		out[position] = ' ';
+		out[position + 1] = DEFAULT_ALPHABET[septet];
+		return position + 2;
+	}
+
+	private static int octets(final ByteBuf hex) {
+		final var length = hex.readableBytes();
+		if ((length & 1) != 0) {
+			throw new IllegalArgumentException("Odd number of hex digits: " + length);
+		}
+
+		return length / 2;
+	}
+
+	private static int octet(final ByteBuf hex, final int start, final int index) {
+		final int high = HEX_VALUES[hex.getByte(start + 2 * index) & 0xFF];
+		final int low = HEX_VALUES[hex.getByte(start + 2 * index + 1) & 0xFF];
+		if ((high | low) < 0) {
+			throw new IllegalArgumentException("Invalid hex digit at " + (high < 0 ? 2 * index : 2 * index + 1));
+		}
+
+		return (high << 4) | low;
+	}
+
+	private static char[] buffer(final int length) {
+		return length <= MAX_REUSED_BUFFER_LENGTH ? BUFFER.get() : new char[length];
+	}
+}
@@ -3,48 +3,69 @@ package se.sundsvall.cimdproxy.cimd.util;
 import com.googlecode.jcimd.PacketSequenceNumberGenerator;
 import com.googlecode.jcimd.SmsCenterPacketSequenceNumberGenerator;
 import io.netty.channel.Channel;
-import io.netty.channel.ChannelId;
-import java.util.HashMap;
-import java.util.Map;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import se.sundsvall.cimdproxy.cimd.Session;
 import se.sundsvall.cimdproxy.cimd.SessionAttribute;
+import se.sundsvall.cimdproxy.cimd.SubmitWindow;
 
 public final class SessionUtil {
 
 	private static final Logger LOG = LoggerFactory.getLogger(SessionUtil.class);
 
-	private static final Map<ChannelId, Session> SESSIONS = new HashMap<>();
+	// Sessions are bound to their channels, so looking one up never takes a global lock. The channel
+	// group merely keeps track of the open ones, and forgets about channels as they are closed
+	private static final ChannelGroup CHANNELS = new DefaultChannelGroup("cimd-sessions", GlobalEventExecutor.INSTANCE);
 
 	private SessionUtil() {}
 
-	public static synchronized Session getSession(final Channel channel) {
-		SESSIONS.computeIfAbsent(channel.id(), channelId -> {
-			var session = new Session(channel);
-			session.setAttribute(
-				SessionAttribute.CIMD_PACKET_SEQUENCE_GENERATOR.toString(),
-				new SmsCenterPacketSequenceNumberGenerator());
-			LOG.info("Session [{}] opened", channelId);
-			return session;
-		});
+	public static Session getSession(final Channel channel) {
+		final var attribute = channel.attr(SessionAttribute.SESSION);
 
-		return SESSIONS.get(channel.id());
+		var session = attribute.get();
+		if (session == null) {
+			final var newSession = new Session(channel);
+			newSession.setAttribute(SessionAttribute.CIMD_PACKET_SEQUENCE_GENERATOR, new SmsCenterPacketSequenceNumberGenerator());
+
+			session = attribute.setIfAbsent(newSession);
+			if (session == null) {
+				session = newSession;
+				CHANNELS.add(channel);
+				LOG.info("Session [{}] opened", channel.id());
+			}
+		}
+
+		return session;
+	}
+
+	public static void removeSession(final Session session) {
+		CHANNELS.remove(session.getId());
 	}
 
-	public static synchronized void removeSession(final Session session) {
-		SESSIONS.remove(session.getId());
+	public static int getSessionCount() {
+		return CHANNELS.size();
 	}
 
 	public static String getUserId(final Session session) {
-		return session.getAttribute(SessionAttribute.USER_ID.toString());
+		return session.getAttribute(SessionAttribute.USER_ID);
 	}
 
 	public static void setUserId(final Session session, final String userId) {
-		session.setAttribute(SessionAttribute.USER_ID.toString(), userId);
+		session.setAttribute(SessionAttribute.USER_ID, userId);
 	}
 
 	public static PacketSequenceNumberGenerator getPacketSequenceNumberGenerator(final Session session) {
-		return session.getAttribute(SessionAttribute.CIMD_PACKET_SEQUENCE_GENERATOR.toString());
+		return session.getAttribute(SessionAttribute.CIMD_PACKET_SEQUENCE_GENERATOR);
+	}
+
+	public static SubmitWindow getSubmitWindow(final Session session) {
+		return session.getAttribute(SessionAttribute.SUBMIT_WINDOW);
+	}
+
+	public static void setSubmitWindow(final Session session, final SubmitWindow submitWindow) {
+		session.setAttribute(SessionAttribute.SUBMIT_WINDOW, submitWindow);
 	}
 }
@@ -0,0 +1,66 @@
+package se.sundsvall.cimdproxy.configuration;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Puts each appender of the root logger behind an {@link AsyncAppender}, so that threads logging (i.e. the CIMD event
+ * loops) don't have to wait for log output to be written.
+ */
+@Configuration
+@ConditionalOnClass(LoggerContext.class)
+@ConditionalOnProperty(prefix = "cimd.logging.async", name = "enabled", havingValue = "true")
+class AsyncLoggingConfiguration implements DisposableBean {
+
+	private static final Logger LOG = LoggerFactory.getLogger(AsyncLoggingConfiguration.class);
+
+	private final ch.qos.logback.classic.Logger rootLogger;
+	private final List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+	private final List<AsyncAppender> asyncAppenders = new ArrayList<>();
+
+	AsyncLoggingConfiguration(final CIMDProperties properties) {
+		final var async = properties.logging().async();
+		final var loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+		rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+
+		rootLogger.iteratorForAppenders().forEachRemaining(appenders::add);
+		appenders.forEach(appender -> {
+			// An async appender only ever delegates to a single appender
+			final var asyncAppender = new AsyncAppender();
+			asyncAppender.setContext(loggerContext);
+			asyncAppender.setName("ASYNC-" + appender.getName());
+			asyncAppender.setQueueSize(async.queueSize());
+			// Never discard events just because the queue is filling up, unless told not to block when it's full
+			asyncAppender.setDiscardingThreshold(0);
+			asyncAppender.setNeverBlock(async.neverBlock());
+			asyncAppender.addAppender(appender);
+			asyncAppender.start();
+
+			rootLogger.detachAppender(appender);
+			rootLogger.addAppender(asyncAppender);
+			asyncAppenders.add(asyncAppender);
+		});
+
+		LOG.info("Logging asynchronously to {} appender(s) (queue size {})", appenders.size(), async.queueSize());
+	}
+
+	@Override
+	public void destroy() {
+		// Hand the appenders back to the root logger, flushing any queued events
+		asyncAppenders.forEach(asyncAppender -> {
+			rootLogger.detachAppender(asyncAppender);
+			asyncAppender.stop();
+		});
+		appenders.forEach(rootLogger::addAppender);
+	}
+}
@@ -1,9 +1,16 @@
 package se.sundsvall.cimdproxy.configuration;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 @Validated
@@ -14,7 +21,163 @@ public record CIMDProperties(
 
 	@Valid @NotNull SSL ssl,
 
-	@DefaultValue("true") boolean useCimdChecksum) {
+	@DefaultValue("true") boolean useCimdChecksum,
+
+	@Valid @DefaultValue Listener listener,
+
+	@Valid @DefaultValue Submit submit,
+
+	@DefaultValue("AUTO") Transport transport,
+
+	@Valid @DefaultValue EventLoop eventLoop,
+
+	@Valid @DefaultValue Logging logging,
+
+	@Valid @DefaultValue RateLimit rateLimit,
+
+	@Valid @DefaultValue Backpressure backpressure,
+
+	@Valid @DefaultValue FlushConsolidation flushConsolidation,
+
+	@Valid @DefaultValue Reassembly reassembly) {
+
+	/**
+	 * Submits beyond the submit window are answered with congestion errors, so a larger limit would never pause reading.
+	 */
+	@AssertTrue(message = "backpressure.max-in-flight must not be greater than submit.window-size")
+	public boolean isMaxInFlightWithinSubmitWindow() {
+		return submit == null || backpressure == null || backpressure.maxInFlight() <= submit.windowSize();
+	}
+
+	public enum Transport {
+		AUTO,
+		NIO,
+		EPOLL,
+		IO_URING
+	}
 
 	public record SSL(@DefaultValue("false") boolean enabled) {}
+
+	public record EventLoop(
+
+		@Positive @DefaultValue("1") int bossThreads,
+
+		// Zero means one worker thread per available processor
+		@PositiveOrZero @DefaultValue("0") int workerThreads,
+
+		@NotBlank @DefaultValue("cimd") String threadNamePrefix) {}
+
+	public record Listener(
+
+		@DefaultValue("true") boolean virtualThreads,
+
+		@Positive @DefaultValue("200") int maxConcurrency) {}
+
+	public record Submit(
+
+		@Positive @DefaultValue("16") int windowSize) {}
+
+	// Off by default, as parts are acknowledged before the message is sent, see the README
+	public record Reassembly(
+
+		@DefaultValue("false") boolean enabled,
+
+		// Time to wait for the remaining parts of a message
+		@NotNull @DefaultValue("1m") Duration timeout,
+
+		@NotNull @DefaultValue("FORWARD_PARTIAL") TimeoutPolicy timeoutPolicy,
+
+		// Maximum number of parts waiting for the remaining parts of their messages, over all sessions
+		@Positive @DefaultValue("10000") int maxPendingParts) {
+
+		public enum TimeoutPolicy {
+			DISCARD,
+			FORWARD_PARTIAL
+		}
+	}
+
+	public record FlushConsolidation(
+
+		@DefaultValue("true") boolean enabled,
+
+		// Maximum number of flushes held back while reading
+		@Positive @DefaultValue("256") int explicitFlushAfterFlushes,
+
+		// Whether to hold back flushes from outside the event loop (i.e. responses to submits) as well
+		@DefaultValue("true") boolean consolidateWhenNoReadInProgress) {}
+
+	public record Backpressure(
+
+		@NotNull @DefaultValue("32KB") DataSize writeBufferLowWatermark,
+
+		@NotNull @DefaultValue("64KB") DataSize writeBufferHighWatermark,
+
+		// Zero means the submit window size, which is also the most allowed
+		@PositiveOrZero @DefaultValue("0") int maxInFlight) {
+
+		/**
+		 * Netty refuses a low watermark above the high one, so catch it when binding the properties rather than when starting.
+		 */
+		@AssertTrue(message = "backpressure.write-buffer-low-watermark must not be greater than backpressure.write-buffer-high-watermark")
+		public boolean isWriteBufferLowWatermarkWithinHighWatermark() {
+			return writeBufferLowWatermark == null || writeBufferHighWatermark == null
+				|| writeBufferLowWatermark.compareTo(writeBufferHighWatermark) <= 0;
+		}
+	}
+
+	public record RateLimit(
+
+		@NotNull @DefaultValue("REJECT") Mode mode,
+
+		// No limit unless configured
+		@Valid Limit global,
+
+		@Valid Limit perUser,
+
+		// Limits of specific user ids, overriding the per-user limit
+		Map<String, @Valid Limit> users) {
+
+		public enum Mode {
+			REJECT,
+			THROTTLE
+		}
+
+		public record Limit(
+
+			// Submits per second
+			@Positive double rate,
+
+			// Zero means a second's worth of submits
+			@PositiveOrZero @DefaultValue("0") int burst) {}
+	}
+
+	public record Logging(
+
+		@NotNull @DefaultValue("PER_MESSAGE") Mode mode,
+
+		// Zero means no messages are sampled when logging summaries
+		@PositiveOrZero @DefaultValue("0") int sampleEvery,
+
+		@NotNull @DefaultValue("1m") Duration summaryInterval,
+
+		@Valid @DefaultValue Async async) {
+
+		@AssertTrue(message = "logging.summary-interval must be positive")
+		public boolean isSummaryIntervalPositive() {
+			return summaryInterval == null || summaryInterval.isPositive();
+		}
+
+		public enum Mode {
+			PER_MESSAGE,
+			SUMMARY
+		}
+
+		public record Async(
+
+			@DefaultValue("false") boolean enabled,
+
+			@Positive @DefaultValue("8192") int queueSize,
+
+			@DefaultValue("false") boolean neverBlock) {}
+	}
 }
@@ -0,0 +1,188 @@
+package se.sundsvall.cimdproxy.integration.smssender;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import generated.se.sundsvall.smssender.SendSmsRequest;
+import generated.se.sundsvall.smssender.SendSmsResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.INTEGRATION_NAME;
+
+/**
+ * Non-blocking SmsSender client, built on the JDK {@link HttpClient}.
+ * <p>
+ * Requests are multiplexed over pooled HTTP/2 connections (or HTTP/1.1 ones, if that is all SmsSender speaks), so no
+ * thread is held while waiting for a response. As with {@link SmsSenderClient}, requests carry an OAuth2 access token,
+ * fetched again once expired or rejected, and go through the circuit breaker of the integration.
+ */
+@Component
+@ConditionalOnProperty(prefix = "integration.sms-sender.async", name = "enabled", havingValue = "true")
+class SmsSenderAsyncClient implements DisposableBean {
+
+	/** Access tokens are fetched again this long before they expire. */
+	private static final Duration TOKEN_EXPIRY_MARGIN = Duration.ofSeconds(30);
+
+	private final SmsSenderIntegrationProperties properties;
+	private final CircuitBreaker circuitBreaker;
+	private final JsonMapper jsonMapper;
+	private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sms-sender-", 0).factory());
+	private final HttpClient httpClient;
+	private final String tokenAuthorization;
+
+	// The access token, or the request for one if it is being fetched
+	private final AtomicReference<CompletableFuture<AccessToken>> accessToken = new AtomicReference<>();
+
+	SmsSenderAsyncClient(final SmsSenderIntegrationProperties properties, final CircuitBreakerRegistry circuitBreakerRegistry, final JsonMapper jsonMapper) {
+		this.properties = properties;
+		this.jsonMapper = jsonMapper;
+
+		circuitBreaker = circuitBreakerRegistry.circuitBreaker(INTEGRATION_NAME);
+		httpClient = HttpClient.newBuilder()
+			.version(properties.async().http2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+			.connectTimeout(properties.connectTimeout())
+			.executor(executor)
+			.build();
+
+		// Client credentials are passed using basic authentication, as by the OAuth2 client of the Feign integration
+		final var oAuth2 = properties.oAuth2();
+		tokenAuthorization = "Basic " + Base64.getEncoder().encodeToString(
+			(urlEncode(oAuth2.clientId()) + ":" + urlEncode(oAuth2.clientSecret())).getBytes(UTF_8));
+	}
+
+	/**
+	 * Sends an SMS.
+	 *
+	 * @param  municipalityId the municipality id
+	 * @param  request        the SMS to send
+	 * @return                a future completing with the response of SmsSender, or exceptionally if the request
+	 *                        failed, SmsSender responded with an error or the circuit breaker is open; with a
+	 *                        {@link SmsSenderRejectedException} if SmsSender rejected the request
+	 */
+	CompletableFuture<SendSmsResponse> sendSms(final String municipalityId, final SendSmsRequest request) {
+		return circuitBreaker.executeCompletionStage(() -> sendSms(municipalityId, request, null)).toCompletableFuture();
+	}
+
+	private CompletableFuture<SendSmsResponse> sendSms(final String municipalityId, final SendSmsRequest request, final AccessToken rejectedToken) {
+		return accessToken(rejectedToken).thenCompose(token -> {
+			final var httpRequest = HttpRequest.newBuilder(URI.create(properties.baseUrl() + "/" + municipalityId + "/send/sms?flash=true"))
+				.timeout(properties.readTimeout())
+				.header("Authorization", "Bearer " + token.value())
+				.header("Content-Type", "application/json")
+				.header("Accept", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(request)))
+				.build();
+
+			return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray()).thenCompose(response -> {
+				// Fetch a new token and try again, once, if the token was rejected
+				if (response.statusCode() == 401 && rejectedToken == null) {
+					return sendSms(municipalityId, request, token);
+				}
+
+				if (SmsSenderRejectedException.isRejection(response.statusCode())) {
+					throw new CompletionException(new SmsSenderRejectedException(response.statusCode(), null));
+				}
+
+				return CompletableFuture.completedFuture(readBody(response, SendSmsResponse.class));
+			});
+		});
+	}
+
+	/**
+	 * Gets an access token, fetching a new one if there is none yet, if it is about to expire, or if it is the one just
+	 * rejected. Concurrent callers share a single request for a new token.
+	 */
+	private CompletableFuture<AccessToken> accessToken(final AccessToken rejectedToken) {
+		while (true) {
+			final var current = accessToken.get();
+			if (current != null && !isStale(current, rejectedToken)) {
+				return current;
+			}
+
+			final var fetched = new CompletableFuture<AccessToken>();
+			if (accessToken.compareAndSet(current, fetched)) {
+				fetchAccessToken().whenComplete((token, e) -> {
+					if (e != null) {
+						fetched.completeExceptionally(e);
+					} else {
+						fetched.complete(token);
+					}
+				});
+				return fetched;
+			}
+		}
+	}
+
+	private static boolean isStale(final CompletableFuture<AccessToken> token, final AccessToken rejectedToken) {
+		if (!token.isDone()) {
+			return false;
+		}
+		if (token.isCompletedExceptionally()) {
+			return true;
+		}
+
+		final var value = token.join();
+		return value == rejectedToken || Instant.now().plus(TOKEN_EXPIRY_MARGIN).isAfter(value.expiresAt());
+	}
+
+	private CompletableFuture<AccessToken> fetchAccessToken() {
+		final var httpRequest = HttpRequest.newBuilder(URI.create(properties.oAuth2().tokenUrl()))
+			.timeout(properties.readTimeout())
+			.header("Authorization", tokenAuthorization)
+			.header("Content-Type", "application/x-www-form-urlencoded")
+			.header("Accept", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString("grant_type=" + urlEncode(properties.oAuth2().grantType())))
+			.build();
+
+		return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+			final var tokenResponse = readBody(response, TokenResponse.class);
+
+			return new AccessToken(tokenResponse.accessToken(), Instant.now().plusSeconds(tokenResponse.expiresIn()));
+		});
+	}
+
+	private <T> T readBody(final HttpResponse<byte[]> response, final Class<T> type) {
+		if (response.statusCode() / 100 != 2) {
+			throw new CompletionException(new IOException(
+				"%s responded with status %d to %s".formatted(INTEGRATION_NAME, response.statusCode(), response.request().uri().getPath())));
+		}
+
+		return jsonMapper.readValue(response.body(), type);
+	}
+
+	private static String urlEncode(final String value) {
+		return URLEncoder.encode(value, UTF_8);
+	}
+
+	@Override
+	public void destroy() {
+		httpClient.close();
+		executor.close();
+	}
+
+	record AccessToken(String value, Instant expiresAt) {}
+
+	record TokenResponse(
+
+		@JsonProperty("access_token") String accessToken,
+
+		@JsonProperty("expires_in") long expiresIn) {}
+}
@@ -0,0 +1,173 @@
+package se.sundsvall.cimdproxy.integration.smssender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Groups SMS to send into batches, collecting them for at most a short linger time or until a batch is full.
+ * <p>
+ * SmsSender has no batch endpoint, so each batch is fanned out as parallel requests, sharing the pooled connections of
+ * the SmsSender client. Each SMS is still completed individually, with its own result.
+ * <p>
+ * At most a configured number of SMS are being sent at any given time. SMS beyond that are left queued until others have
+ * been sent, so that a saturated SmsSender fills up the queue and further SMS are rejected.
+ */
+class SmsSenderBatcher implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SmsSenderBatcher.class);
+
+	private static final long POLL_TIMEOUT_MILLIS = 100;
+
+	private final BiPredicate<String, String> sender;
+	private final int maxSize;
+	private final long lingerNanos;
+	private final BlockingQueue<PendingSms> queue;
+	private final Semaphore permits;
+	private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sms-sender-", 0).factory());
+	private final Thread collector;
+
+	private volatile boolean running = true;
+
+	SmsSenderBatcher(final SmsSenderIntegrationProperties.Batch batch, final BiPredicate<String, String> sender) {
+		this.sender = sender;
+		this.maxSize = batch.maxSize();
+		this.lingerNanos = batch.linger().toNanos();
+		this.queue = new ArrayBlockingQueue<>(batch.maxPending());
+		this.permits = new Semaphore(batch.maxInFlight());
+
+		collector = Thread.ofPlatform().name("sms-sender-batcher").daemon().start(this::collect);
+	}
+
+	/**
+	 * Queues an SMS to be sent with the next batch.
+	 *
+	 * @param  destinationNumber the destination number
+	 * @param  message           the message
+	 * @return                   a future completing with {@code true} if the SMS was sent, or failing with a
+	 *                           {@link RejectedExecutionException} if too many SMS are already waiting to be sent
+	 */
+	CompletableFuture<Boolean> submit(final String destinationNumber, final String message) {
+		final var pending = new PendingSms(destinationNumber, message, new CompletableFuture<>());
+
+		if (!running || !queue.offer(pending)) {
+			return CompletableFuture.failedFuture(new RejectedExecutionException("Too many SMS waiting to be sent"));
+		}
+
+		// Closed while queueing, possibly after the queue was drained, so take the SMS back unless it's been taken already
+		if (!running && queue.remove(pending)) {
+			pending.result().completeExceptionally(closedException());
+		}
+
+		return pending.result();
+	}
+
+	private void collect() {
+		while (running || !queue.isEmpty()) {
+			try {
+				final var first = take(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+
+				final var batch = new ArrayList<PendingSms>(maxSize);
+				batch.add(first);
+
+				// Grab whatever is queued already, then linger for the rest of the batch
+				takeQueued(batch);
+				final var deadline = System.nanoTime() + lingerNanos;
+				while (batch.size() < maxSize) {
+					final var next = take(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+					takeQueued(batch);
+				}
+
+				send(batch);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Takes the next SMS off the queue, once there is a permit to send it, waiting at most the given time for both.
+	 *
+	 * @return the SMS, holding a permit, or {@code null} if there was none or no permit in time
+	 */
+	private PendingSms take(final long timeout, final TimeUnit unit) throws InterruptedException {
+		final var deadline = System.nanoTime() + unit.toNanos(timeout);
+		if (!permits.tryAcquire(timeout, unit)) {
+			return null;
+		}
+
+		final var sms = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		if (sms == null) {
+			permits.release();
+		}
+		return sms;
+	}
+
+	/**
+	 * Takes the SMS already queued, as long as there are permits to send them and room for them in the batch.
+	 */
+	private void takeQueued(final List<PendingSms> batch) {
+		while (batch.size() < maxSize && permits.tryAcquire()) {
+			final var sms = queue.poll();
+			if (sms == null) {
+				permits.release();
+				return;
+			}
+			batch.add(sms);
+		}
+	}
+
+	private void send(final List<PendingSms> batch) {
+		LOG.debug("Sending batch of {} SMS", batch.size());
+
+		batch.forEach(sms -> executor.execute(() -> {
+			try {
+				sms.result().complete(sender.test(sms.destinationNumber(), sms.message()));
+			} catch (final RuntimeException e) {
+				sms.result().completeExceptionally(e);
+			} finally {
+				permits.release();
+			}
+		}));
+	}
+
+	/**
+	 * Stops accepting SMS, and waits for the ones already queued to be sent. SMS queued while closing, that the collector
+	 * didn't get to, are failed with a {@link RejectedExecutionException}.
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		running = false;
+		collector.join();
+
+		final var remaining = new ArrayList<PendingSms>();
+		queue.drainTo(remaining);
+		remaining.forEach(sms -> sms.result().completeExceptionally(closedException()));
+
+		executor.close();
+	}
+
+	private static RejectedExecutionException closedException() {
+		return new RejectedExecutionException("SMS sender batcher is closed");
+	}
+
+	private record PendingSms(String destinationNumber, String message, CompletableFuture<Boolean> result) {}
+}
@@ -1,9 +1,18 @@
 package se.sundsvall.cimdproxy.integration.smssender;
 
 import generated.se.sundsvall.smssender.SendSmsRequest;
+import generated.se.sundsvall.smssender.SendSmsResponse;
 import generated.se.sundsvall.smssender.Sender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -11,41 +20,189 @@ import static java.lang.Boolean.TRUE;
 
 @Component
 @EnableConfigurationProperties(SmsSenderIntegrationProperties.class)
-public class SmsSenderIntegration {
+public class SmsSenderIntegration implements DisposableBean {
 
 	static final String INTEGRATION_NAME = "SmsSender";
 
+	static final String REQUESTS_TIMER_NAME = "cimd.smssender.requests";
+	static final String OUTCOME_SENT = "sent";
+	static final String OUTCOME_NOT_SENT = "not-sent";
+	static final String OUTCOME_ERROR = "error";
+
 	private static final Logger LOG = LoggerFactory.getLogger(SmsSenderIntegration.class);
 
 	private final SmsSenderIntegrationProperties properties;
 	private final SmsSenderClient client;
+	private final SmsSenderAsyncClient asyncClient;
+	private final Semaphore asyncPermits;
+	private final MeterRegistry meterRegistry;
+	private final Timer sentTimer;
+	private final Timer notSentTimer;
+	private final Timer errorTimer;
+	private final SmsSenderBatcher batcher;
 
-	SmsSenderIntegration(final SmsSenderIntegrationProperties properties, final SmsSenderClient client) {
+	SmsSenderIntegration(final SmsSenderIntegrationProperties properties, final SmsSenderClient client,
+		final Optional<SmsSenderAsyncClient> asyncClient, final MeterRegistry meterRegistry) {
 		this.properties = properties;
 		this.client = client;
+		this.asyncClient = asyncClient.orElse(null);
+		this.asyncPermits = this.asyncClient != null ? new Semaphore(properties.async().maxInFlight()) : null;
+		this.meterRegistry = meterRegistry;
+		sentTimer = requestsTimer(OUTCOME_SENT);
+		notSentTimer = requestsTimer(OUTCOME_NOT_SENT);
+		errorTimer = requestsTimer(OUTCOME_ERROR);
+
+		final var batch = properties.batch();
+		batcher = batch != null && batch.enabled() ? new SmsSenderBatcher(batch, this::sendSms) : null;
+	}
+
+	public boolean isBatchingEnabled() {
+		return batcher != null;
+	}
+
+	/**
+	 * Sends an SMS with the next batch. Only available when batching is enabled.
+	 *
+	 * @param  destinationNumber the destination number
+	 * @param  message           the message
+	 * @return                   a future completing with {@code true} if the SMS was sent
+	 */
+	public CompletableFuture<Boolean> sendSmsBatched(final String destinationNumber, final String message) {
+		if (batcher == null) {
+			throw new IllegalStateException("Batching is not enabled");
+		}
+
+		return batcher.submit(destinationNumber, message);
+	}
+
+	public boolean isAsyncEnabled() {
+		return asyncClient != null;
+	}
+
+	/**
+	 * Sends an SMS without blocking. Only available when the asynchronous client is enabled.
+	 *
+	 * @param  destinationNumber the destination number
+	 * @param  message           the message
+	 * @return                   a future completing with {@code true} if the SMS was sent, or failing with a
+	 *                           {@link RejectedExecutionException} if too many SMS are already being sent
+	 */
+	public CompletableFuture<Boolean> sendSmsAsync(final String destinationNumber, final String message) {
+		if (asyncClient == null) {
+			throw new IllegalStateException("The asynchronous client is not enabled");
+		}
+		if (!asyncPermits.tryAcquire()) {
+			return CompletableFuture.failedFuture(new RejectedExecutionException("Too many SMS being sent"));
+		}
+
+		return send(destinationNumber, message)
+			.thenApply(SendResult.SENT::equals)
+			.whenComplete((result, e) -> asyncPermits.release());
+	}
+
+	private CompletableFuture<SendResult> send(final String destinationNumber, final String message) {
+		final var sample = Timer.start(meterRegistry);
+		try {
+			return asyncClient.sendSms(properties.municipalityId(), createRequest(destinationNumber, message))
+				.handle((result, e) -> {
+					if (e != null) {
+						return handleError(sample, e);
+					}
+
+					return handleResult(sample, result);
+				});
+		} catch (Exception e) {
+			return CompletableFuture.completedFuture(handleError(sample, e));
+		}
 	}
 
 	public boolean sendSms(final String destinationNumber, final String message) {
+		return sendSmsWithResult(destinationNumber, message) == SendResult.SENT;
+	}
+
+	/**
+	 * Sends an SMS, telling an SMS that will never be sent apart from one that might be if sent again.
+	 *
+	 * @param  destinationNumber the destination number
+	 * @param  message           the message
+	 * @return                   the result
+	 */
+	public SendResult sendSmsWithResult(final String destinationNumber, final String message) {
+		// Callers blocking on the result are bounded by their own concurrency, so aren't held to the permits
+		if (asyncClient != null) {
+			return send(destinationNumber, message).join();
+		}
+
+		final var sample = Timer.start(meterRegistry);
 		try {
-			var request = new SendSmsRequest()
-				.priority(SendSmsRequest.PriorityEnum.HIGH)
-				.sender(new Sender()
-					.name(properties.sms().from()))
-				.mobileNumber(destinationNumber)
-				.message(message);
+			var result = client.sendSms(properties.municipalityId(), createRequest(destinationNumber, message));
 
-			var result = client.sendSms(properties.municipalityId(), request);
+			return handleResult(sample, result);
+		} catch (Exception e) {
+			return handleError(sample, e);
+		}
+	}
 
-			if (TRUE.equals(result.getSent())) {
-				LOG.info("SMS sent");
+	private SendSmsRequest createRequest(final String destinationNumber, final String message) {
+		return new SendSmsRequest()
+			.priority(SendSmsRequest.PriorityEnum.HIGH)
+			.sender(new Sender()
+				.name(properties.sms().from()))
+			.mobileNumber(destinationNumber)
+			.message(message);
+	}
+
+	private SendResult handleResult(final Timer.Sample sample, final SendSmsResponse result) {
+		if (TRUE.equals(result.getSent())) {
+			sample.stop(sentTimer);
+			LOG.info("SMS sent");
+			return SendResult.SENT;
+		}
+
+		sample.stop(notSentTimer);
+		LOG.info("Unable to send SMS");
+		return SendResult.REJECTED;
+	}
+
+	private SendResult handleError(final Timer.Sample sample, final Throwable e) {
+		sample.stop(errorTimer);
+		LOG.warn("Unable to send SMS", e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+		return isRejection(e) ? SendResult.REJECTED : SendResult.FAILED;
+	}
+
+	private static boolean isRejection(final Throwable e) {
+		for (var cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SmsSenderRejectedException) {
 				return true;
 			}
+		}
+		return false;
+	}
 
-			LOG.info("Unable to send SMS");
-			return false;
-		} catch (Exception e) {
-			LOG.warn("Unable to send SMS", e);
-			return false;
+	private Timer requestsTimer(final String outcome) {
+		return Timer.builder(REQUESTS_TIMER_NAME)
+			.description("Time taken to send an SMS through SmsSender")
+			.tag("outcome", outcome)
+			.publishPercentileHistogram()
+			.register(meterRegistry);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (batcher != null) {
+			batcher.close();
 		}
 	}
+
+	/**
+	 * The result of sending an SMS.
+	 */
+	public enum SendResult {
+		/** The SMS was sent. */
+		SENT,
+		/** The SMS was not sent, and never will be, as SmsSender didn't send it or rejected the request. */
+		REJECTED,
+		/** The SMS was not sent, but might be if sent again. */
+		FAILED
+	}
 }
@@ -24,6 +24,8 @@ class SmsSenderIntegrationConfiguration {
 
 	@Bean
 	FeignBuilderCustomizer customizer() {
+		final var problemErrorDecoder = new ProblemErrorDecoder(SmsSenderIntegration.INTEGRATION_NAME);
+
 		return FeignMultiCustomizer.create()
 			.withRequestInterceptor(template -> template.query("flash", "true"))
 			.withRetryableOAuth2InterceptorForClientRegistration(ClientRegistration
@@ -33,7 +35,10 @@ class SmsSenderIntegrationConfiguration {
 				.clientSecret(properties.oAuth2().clientSecret())
 				.authorizationGrantType(new AuthorizationGrantType(properties.oAuth2().grantType()))
 				.build())
-			.withErrorDecoder(new ProblemErrorDecoder(SmsSenderIntegration.INTEGRATION_NAME))
+			// Tell rejected requests apart, as those are never sent no matter how many times they are tried
+			.withErrorDecoder((methodKey, response) -> SmsSenderRejectedException.isRejection(response.status())
+				? new SmsSenderRejectedException(response.status(), problemErrorDecoder.decode(methodKey, response))
+				: problemErrorDecoder.decode(methodKey, response))
 			.withRequestOptions(new Request.Options(
 				properties.connectTimeout().toMillis(), TimeUnit.MILLISECONDS,
 				properties.readTimeout().toMillis(), TimeUnit.MILLISECONDS,
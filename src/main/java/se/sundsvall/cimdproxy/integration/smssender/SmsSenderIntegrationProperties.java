@@ -2,6 +2,8 @@ package se.sundsvall.cimdproxy.integration.smssender;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
@@ -21,12 +23,38 @@ record SmsSenderIntegrationProperties(
 
 	@DefaultValue("PT15S") Duration readTimeout,
 
-	@DefaultValue("PT5S") Duration connectTimeout) {
+	@DefaultValue("PT5S") Duration connectTimeout,
+
+	@Valid @DefaultValue Batch batch,
+
+	@Valid @DefaultValue Async async) {
 
 	record Sms(
 
 		@NotBlank @DefaultValue("Sundsvall") String from) {}
 
+	record Batch(
+
+		@DefaultValue("false") boolean enabled,
+
+		@NotNull @DefaultValue("PT0.01S") Duration linger,
+
+		@Positive @DefaultValue("50") int maxSize,
+
+		@Positive @DefaultValue("1000") int maxPending,
+
+		// Maximum number of SMS being sent at once, further SMS are left waiting
+		@Positive @DefaultValue("200") int maxInFlight) {}
+
+	record Async(
+
+		@DefaultValue("false") boolean enabled,
+
+		@DefaultValue("true") boolean http2,
+
+		// Maximum number of requests awaiting a response, further SMS are rejected
+		@Positive @DefaultValue("200") int maxInFlight) {}
+
 	record OAuth2(
 
 		@NotBlank String tokenUrl,
@@ -0,0 +1,25 @@
+package se.sundsvall.cimdproxy.integration.smssender;
+
+/**
+ * Thrown when SmsSender rejects a request with a client error, such as for an invalid number, meaning that the same
+ * request would be rejected again.
+ */
+class SmsSenderRejectedException extends RuntimeException {
+
+	private static final long serialVersionUID = 6263915873453140562L;
+
+	SmsSenderRejectedException(final int statusCode, final Throwable cause) {
+		super("%s rejected the request with status %d".formatted(SmsSenderIntegration.INTEGRATION_NAME, statusCode), cause);
+	}
+
+	/**
+	 * Tells whether a response status means that the request was rejected, i.e. a client error other than those that
+	 * may go away when trying again (an expired token, a timeout or too many requests).
+	 *
+	 * @param  statusCode the status code of the response
+	 * @return            whether the request was rejected
+	 */
+	static boolean isRejection(final int statusCode) {
+		return statusCode / 100 == 4 && statusCode != 401 && statusCode != 408 && statusCode != 429;
+	}
+}
@@ -0,0 +1,27 @@
+package se.sundsvall.cimdproxy.journal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "journal", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(JournalProperties.class)
+class JournalConfiguration {
+
+	@Bean
+	SubmitJournal submitJournal(final JournalProperties properties) throws IOException {
+		return new SubmitJournal(properties);
+	}
+
+	@Bean
+	JournalForwarder journalForwarder(final SubmitJournal submitJournal, final SmsSenderIntegration smsSenderIntegration, final JournalProperties properties,
+		final MeterRegistry meterRegistry) throws IOException {
+		return new JournalForwarder(submitJournal, new SubmitJournal(properties.parked()), smsSenderIntegration::sendSmsWithResult, properties.forwarder(),
+			meterRegistry);
+	}
+}
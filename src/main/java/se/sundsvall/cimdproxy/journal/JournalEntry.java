@@ -0,0 +1,11 @@
+package se.sundsvall.cimdproxy.journal;
+
+/**
+ * A submit read back from the journal.
+ *
+ * @param position           the position of the entry
+ * @param destinationAddress the destination address of the submit
+ * @param content            the message of the submit
+ * @param next               the position of the entry following this one
+ */
+record JournalEntry(JournalPosition position, String destinationAddress, String content, JournalPosition next) {}
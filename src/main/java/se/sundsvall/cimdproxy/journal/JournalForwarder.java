@@ -0,0 +1,232 @@
+package se.sundsvall.cimdproxy.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.SendResult;
+
+/**
+ * Forwards the submits in the journal, retrying each with backoff until forwarded.
+ * <p>
+ * Up to a configured number of submits are forwarded concurrently, and the checkpoint is moved past a submit once it
+ * and all submits before it are done with. Submits are thus forwarded at least once: anything still in flight when the
+ * forwarder is stopped is forwarded again on restart.
+ * <p>
+ * Submits that are rejected, and so would never be forwarded, as well as submits still not forwarded after a
+ * configured number of attempts, are moved to a journal of their own, the parked journal, and counted by the
+ * {@value #PARKED_COUNTER} counter. That way, a single submit can't hold back the ones after it.
+ */
+public class JournalForwarder implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(JournalForwarder.class);
+
+	static final String PARKED_COUNTER = "cimd.journal.entries.parked";
+	static final String REASON_REJECTED = "rejected";
+	static final String REASON_MAX_ATTEMPTS = "max-attempts";
+
+	private static final long POLL_TIMEOUT_MILLIS = 50;
+
+	private final SubmitJournal journal;
+	private final SubmitJournal parkedJournal;
+	private final BiFunction<String, String, SendResult> sender;
+	private final JournalProperties.Forwarder properties;
+	private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("journal-forwarder-", 0).factory());
+	private final Thread reader;
+	private final Counter parkedRejected;
+	private final Counter parkedAfterMaxAttempts;
+
+	private volatile boolean running = true;
+
+	/**
+	 * Starts forwarding the submits in the journal.
+	 *
+	 * @param journal       the journal
+	 * @param parkedJournal the journal to move submits that can't be forwarded to, closed along with the forwarder
+	 * @param sender        forwards a submit, given its destination address and message
+	 * @param properties    the properties of the forwarder
+	 * @param meterRegistry the meter registry
+	 */
+	public JournalForwarder(final SubmitJournal journal, final SubmitJournal parkedJournal, final BiFunction<String, String, SendResult> sender,
+		final JournalProperties.Forwarder properties, final MeterRegistry meterRegistry) {
+		this.journal = journal;
+		this.parkedJournal = parkedJournal;
+		this.sender = sender;
+		this.properties = properties;
+
+		parkedRejected = parkedCounter(REASON_REJECTED, meterRegistry);
+		parkedAfterMaxAttempts = parkedCounter(REASON_MAX_ATTEMPTS, meterRegistry);
+
+		reader = Thread.ofPlatform().name("journal-reader").daemon().start(this::forwardAll);
+	}
+
+	private void forwardAll() {
+		final var inFlight = new ArrayDeque<InFlight>(properties.concurrency());
+		var position = journal.checkpoint();
+
+		try {
+			while (running) {
+				moveCheckpoint(inFlight);
+
+				if (inFlight.size() < properties.concurrency()) {
+					final var entry = journal.read(position);
+					if (entry != null) {
+						inFlight.add(new InFlight(entry, CompletableFuture.supplyAsync(() -> forward(entry), executor)));
+						position = entry.next();
+					} else {
+						journal.awaitAppend(position, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+					}
+				} else {
+					awaitQuietly(inFlight.peek().done());
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Moves the checkpoint past the submits done with, in order, stopping at the first one not (yet) forwarded or
+	 * parked. Should the checkpoint not be moved, the submits are kept in flight and it is tried again, after backoff.
+	 */
+	private void moveCheckpoint(final ArrayDeque<InFlight> inFlight) throws InterruptedException {
+		JournalPosition checkpoint = null;
+		var forwarded = 0;
+		for (final var submit : inFlight) {
+			if (!isDone(submit.done())) {
+				break;
+			}
+			checkpoint = submit.entry().next();
+			forwarded++;
+		}
+		if (checkpoint == null) {
+			return;
+		}
+
+		try {
+			journal.moveCheckpoint(checkpoint);
+		} catch (final IOException e) {
+			LOG.error("Unable to move journal checkpoint to {}, retrying", checkpoint, e);
+			Thread.sleep(properties.retryBackoff().toMillis());
+			return;
+		}
+		for (var i = 0; i < forwarded; i++) {
+			inFlight.poll();
+		}
+	}
+
+	/**
+	 * Forwards a submit, retrying with backoff until forwarded or the forwarder is stopped. A submit that is rejected,
+	 * or still not forwarded after the configured number of attempts, is parked instead.
+	 *
+	 * @return whether the submit was forwarded or parked
+	 */
+	private boolean forward(final JournalEntry entry) {
+		var backoff = properties.retryBackoff().toMillis();
+
+		for (var attempt = 1; running; attempt++) {
+			var result = SendResult.FAILED;
+			try {
+				result = sender.apply(entry.destinationAddress(), entry.content());
+			} catch (final RuntimeException e) {
+				LOG.warn("Unable to forward journal entry at {}", entry.position(), e);
+			}
+
+			if (result == SendResult.SENT) {
+				return true;
+			}
+			if (result == SendResult.REJECTED) {
+				LOG.error("Journal entry at {} rejected, parking it", entry.position());
+				return park(entry, parkedRejected);
+			}
+			if (attempt >= properties.maxAttempts()) {
+				LOG.error("Journal entry at {} not forwarded after {} attempt(s), parking it", entry.position(), attempt);
+				return park(entry, parkedAfterMaxAttempts);
+			}
+
+			if (!sleep(backoff)) {
+				return false;
+			}
+			backoff = Math.min(backoff * 2, properties.maxRetryBackoff().toMillis());
+		}
+		return false;
+	}
+
+	/**
+	 * Appends a submit to the parked journal, retrying with backoff until appended or the forwarder is stopped.
+	 *
+	 * @return whether the submit was parked
+	 */
+	private boolean park(final JournalEntry entry, final Counter counter) {
+		var backoff = properties.retryBackoff().toMillis();
+
+		while (running) {
+			try {
+				parkedJournal.append(entry.destinationAddress(), entry.content());
+				counter.increment();
+				return true;
+			} catch (final IOException e) {
+				LOG.error("Unable to park journal entry at {}, retrying", entry.position(), e);
+			}
+
+			if (!sleep(backoff)) {
+				return false;
+			}
+			backoff = Math.min(backoff * 2, properties.maxRetryBackoff().toMillis());
+		}
+		return false;
+	}
+
+	private static boolean sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+			return true;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static Counter parkedCounter(final String reason, final MeterRegistry meterRegistry) {
+		return Counter.builder(PARKED_COUNTER)
+			.description("Journaled submits moved to the parked journal")
+			.tag("reason", reason)
+			.register(meterRegistry);
+	}
+
+	private static boolean isDone(final CompletableFuture<Boolean> done) {
+		return done.isDone() && !done.isCompletedExceptionally() && done.join();
+	}
+
+	private static void awaitQuietly(final CompletableFuture<Boolean> future) throws InterruptedException {
+		try {
+			future.get(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (final ExecutionException | TimeoutException e) {
+			// Either done or not, which is all we care about
+		}
+	}
+
+	/**
+	 * Stops forwarding, and closes the parked journal. Submits not yet forwarded or parked, or still being retried, are
+	 * left in the journal to be forwarded on restart.
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		running = false;
+		reader.join();
+		executor.shutdownNow();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+		parkedJournal.close();
+	}
+
+	private record InFlight(JournalEntry entry, CompletableFuture<Boolean> done) {}
+}
@@ -0,0 +1,14 @@
+package se.sundsvall.cimdproxy.journal;
+
+/**
+ * Position in the journal, i.e. a segment and an offset within it.
+ */
+record JournalPosition(long segment, int offset) implements Comparable<JournalPosition> {
+
+	@Override
+	public int compareTo(final JournalPosition other) {
+		final var result = Long.compare(segment, other.segment);
+
+		return result != 0 ? result : Integer.compare(offset, other.offset);
+	}
+}
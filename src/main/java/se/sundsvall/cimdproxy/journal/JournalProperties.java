@@ -0,0 +1,58 @@
+package se.sundsvall.cimdproxy.journal;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+@Validated
+@ConfigurationProperties(prefix = "journal")
+public record JournalProperties(
+
+	@DefaultValue("false") boolean enabled,
+
+	@NotNull @DefaultValue("journal") Path directory,
+
+	@NotNull @DefaultValue("16MB") DataSize segmentSize,
+
+	@NotNull @DefaultValue("INTERVAL") FsyncPolicy fsyncPolicy,
+
+	@NotNull @DefaultValue("1s") Duration fsyncInterval,
+
+	@Valid @DefaultValue Forwarder forwarder) {
+
+	/** Subdirectory of the journal holding the submits that couldn't be forwarded. */
+	static final String PARKED_DIRECTORY_NAME = "parked";
+
+	/**
+	 * @return the properties of the journal of submits that couldn't be forwarded
+	 */
+	JournalProperties parked() {
+		return new JournalProperties(enabled, directory.resolve(PARKED_DIRECTORY_NAME), segmentSize, fsyncPolicy, fsyncInterval, forwarder);
+	}
+
+	public enum FsyncPolicy {
+		/** Flush each submit to disk before acknowledging it. */
+		ALWAYS,
+		/** Flush to disk periodically, every fsync interval. */
+		INTERVAL,
+		/** Leave flushing to the operating system. */
+		NEVER
+	}
+
+	public record Forwarder(
+
+		@Positive @DefaultValue("16") int concurrency,
+
+		// Submits still not forwarded after this many attempts are parked
+		@Positive @DefaultValue("10") int maxAttempts,
+
+		@NotNull @DefaultValue("1s") Duration retryBackoff,
+
+		@NotNull @DefaultValue("1m") Duration maxRetryBackoff) {}
+}
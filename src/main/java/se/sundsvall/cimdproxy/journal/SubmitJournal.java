@@ -0,0 +1,356 @@
+package se.sundsvall.cimdproxy.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only journal of accepted submits, stored in memory-mapped segment files.
+ * <p>
+ * Each record holds its length, a CRC32 of its contents, and the destination address and message of the submit, in
+ * UTF-8. The length is written last, so that a record only counts once complete. A record that doesn't fit in what's
+ * left of the current segment goes into a new one, leaving an end-of-segment marker behind.
+ * <p>
+ * Submits are read back in order by a single reader, which moves the checkpoint forward as they are forwarded. On
+ * restart, reading resumes from the checkpoint, and segments entirely before it are deleted.
+ */
+public class SubmitJournal implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SubmitJournal.class);
+
+	static final String SEGMENT_SUFFIX = ".segment";
+	static final String CHECKPOINT_FILE_NAME = "checkpoint";
+
+	/** Length and CRC32 of the record. */
+	private static final int RECORD_HEADER_LENGTH = 8;
+	/** Length of the destination address. */
+	private static final int DESTINATION_LENGTH_LENGTH = 2;
+	private static final int END_OF_SEGMENT = -1;
+	/** Segment, offset and CRC32 of the two. */
+	private static final int CHECKPOINT_LENGTH = 16;
+
+	private final Path directory;
+	private final int segmentSize;
+	private final JournalProperties.FsyncPolicy fsyncPolicy;
+	private final ConcurrentNavigableMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+	private final MappedByteBuffer checkpointBuffer;
+	private final ScheduledExecutorService fsyncScheduler;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition appended = lock.newCondition();
+	private final CRC32 crc = new CRC32();
+
+	// Guarded by the lock
+	private long writeSegment;
+	private MappedByteBuffer writeBuffer;
+	private int writeOffset;
+
+	// Published after each append, so that the reader never reads past it
+	private volatile JournalPosition writePosition;
+
+	public SubmitJournal(final JournalProperties properties) throws IOException {
+		directory = properties.directory();
+		segmentSize = Math.toIntExact(properties.segmentSize().toBytes());
+		fsyncPolicy = properties.fsyncPolicy();
+
+		Files.createDirectories(directory);
+		checkpointBuffer = map(directory.resolve(CHECKPOINT_FILE_NAME), CHECKPOINT_LENGTH);
+		var checkpoint = readCheckpoint();
+
+		// Map the segments not yet entirely forwarded, deleting the others
+		try (var files = Files.list(directory)) {
+			for (final var file : files.filter(path -> path.toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+				final var fileName = file.getFileName().toString();
+				final var segment = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+				if (segment < checkpoint.segment()) {
+					Files.delete(file);
+				} else {
+					segments.put(segment, map(file, Math.toIntExact(Files.size(file))));
+				}
+			}
+		}
+
+		if (segments.isEmpty()) {
+			segments.put(checkpoint.segment(), map(segmentPath(checkpoint.segment()), segmentSize));
+		}
+		if (checkpoint.segment() < segments.firstKey()) {
+			checkpoint = new JournalPosition(segments.firstKey(), 0);
+		}
+		writeCheckpoint(checkpoint);
+
+		writeSegment = segments.lastKey();
+		writeBuffer = segments.get(writeSegment);
+		writeOffset = recover(writeBuffer);
+		writePosition = new JournalPosition(writeSegment, writeOffset);
+
+		LOG.info("Journal opened in {}, replaying from {} up to {}", directory, checkpoint, writePosition);
+
+		if (fsyncPolicy == JournalProperties.FsyncPolicy.INTERVAL) {
+			final var interval = properties.fsyncInterval().toMillis();
+			fsyncScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("journal-fsync").daemon().factory());
+			fsyncScheduler.scheduleWithFixedDelay(this::force, interval, interval, TimeUnit.MILLISECONDS);
+		} else {
+			fsyncScheduler = null;
+		}
+	}
+
+	/**
+	 * Appends a submit to the journal. Once this method returns, the submit will survive a crash of the process, and
+	 * with the {@code ALWAYS} fsync policy also a crash of the operating system.
+	 *
+	 * @param  destinationAddress the destination address of the submit
+	 * @param  content            the message of the submit
+	 * @throws IOException        if the submit could not be appended
+	 */
+	public void append(final String destinationAddress, final String content) throws IOException {
+		final var destination = destinationAddress.getBytes(UTF_8);
+		final var message = content.getBytes(UTF_8);
+		final var length = DESTINATION_LENGTH_LENGTH + destination.length + message.length;
+		if (RECORD_HEADER_LENGTH + length > segmentSize) {
+			throw new IOException("Submit of " + length + " bytes doesn't fit in a journal segment");
+		}
+
+		lock.lock();
+		try {
+			if (writeOffset + RECORD_HEADER_LENGTH + length > writeBuffer.capacity()) {
+				nextSegment();
+			}
+
+			final var offset = writeOffset;
+			final var contentOffset = offset + RECORD_HEADER_LENGTH;
+			writeBuffer.putShort(contentOffset, (short) destination.length);
+			writeBuffer.put(contentOffset + DESTINATION_LENGTH_LENGTH, destination);
+			writeBuffer.put(contentOffset + DESTINATION_LENGTH_LENGTH + destination.length, message);
+			crc.reset();
+			crc.update(writeBuffer.slice(contentOffset, length));
+			writeBuffer.putInt(offset + 4, (int) crc.getValue());
+			// The length goes in last, marking the record as complete
+			writeBuffer.putInt(offset, length);
+			writeOffset = contentOffset + length;
+
+			if (fsyncPolicy == JournalProperties.FsyncPolicy.ALWAYS) {
+				writeBuffer.force(offset, RECORD_HEADER_LENGTH + length);
+			}
+
+			writePosition = new JournalPosition(writeSegment, writeOffset);
+			appended.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the position from which to start reading, i.e. the last checkpoint.
+	 *
+	 * @return the checkpoint
+	 */
+	JournalPosition checkpoint() {
+		return readCheckpoint();
+	}
+
+	/**
+	 * Reads the entry at the given position.
+	 *
+	 * @param  position the position to read at, either the checkpoint or the position following a previously read entry
+	 * @return          the entry, or {@code null} if nothing has been appended at the position yet
+	 */
+	JournalEntry read(final JournalPosition position) {
+		var current = position;
+		if (current.compareTo(writePosition) >= 0) {
+			return null;
+		}
+
+		var buffer = segments.get(current.segment());
+		if (current.offset() + RECORD_HEADER_LENGTH > buffer.capacity() || buffer.getInt(current.offset()) == END_OF_SEGMENT) {
+			current = new JournalPosition(current.segment() + 1, 0);
+			if (current.compareTo(writePosition) >= 0) {
+				return null;
+			}
+			buffer = segments.get(current.segment());
+		}
+
+		final var contentOffset = current.offset() + RECORD_HEADER_LENGTH;
+		final var length = buffer.getInt(current.offset());
+		final var destination = new byte[buffer.getShort(contentOffset)];
+		buffer.get(contentOffset + DESTINATION_LENGTH_LENGTH, destination);
+		final var message = new byte[length - DESTINATION_LENGTH_LENGTH - destination.length];
+		buffer.get(contentOffset + DESTINATION_LENGTH_LENGTH + destination.length, message);
+
+		return new JournalEntry(current, new String(destination, UTF_8), new String(message, UTF_8),
+			new JournalPosition(current.segment(), contentOffset + length));
+	}
+
+	/**
+	 * Waits for something to be appended at the given position.
+	 *
+	 * @param  position             the position
+	 * @param  timeout              the maximum time to wait
+	 * @param  unit                 the unit of the timeout
+	 * @return                      {@code true} if something has been appended at the position
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	boolean awaitAppend(final JournalPosition position, final long timeout, final TimeUnit unit) throws InterruptedException {
+		var nanos = unit.toNanos(timeout);
+
+		lock.lock();
+		try {
+			while (position.compareTo(writePosition) >= 0) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = appended.awaitNanos(nanos);
+			}
+
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Moves the checkpoint forward to the given position, deleting the segments entirely before it. Entries after the
+	 * checkpoint are replayed on restart.
+	 *
+	 * @param  position    the position of the first entry not yet forwarded
+	 * @throws IOException if a segment could not be deleted
+	 */
+	void moveCheckpoint(final JournalPosition position) throws IOException {
+		writeCheckpoint(position);
+
+		for (final var segment : segments.headMap(position.segment()).keySet()) {
+			segments.remove(segment);
+			Files.deleteIfExists(segmentPath(segment));
+		}
+	}
+
+	@Override
+	public void close() {
+		if (fsyncScheduler != null) {
+			fsyncScheduler.shutdownNow();
+		}
+
+		if (fsyncPolicy != JournalProperties.FsyncPolicy.NEVER) {
+			force();
+		}
+
+		LOG.info("Journal closed at {}", writePosition);
+	}
+
+	private void force() {
+		final MappedByteBuffer buffer;
+		lock.lock();
+		try {
+			buffer = writeBuffer;
+		} finally {
+			lock.unlock();
+		}
+
+		buffer.force();
+		checkpointBuffer.force();
+	}
+
+	private void nextSegment() throws IOException {
+		if (writeOffset + Integer.BYTES <= writeBuffer.capacity()) {
+			writeBuffer.putInt(writeOffset, END_OF_SEGMENT);
+		}
+		if (fsyncPolicy != JournalProperties.FsyncPolicy.NEVER) {
+			writeBuffer.force();
+		}
+
+		final var buffer = map(segmentPath(writeSegment + 1), segmentSize);
+		writeSegment++;
+		writeBuffer = buffer;
+		writeOffset = 0;
+		segments.put(writeSegment, writeBuffer);
+	}
+
+	/**
+	 * Finds the end of the last complete record in the given segment, clearing anything following it (i.e. a record
+	 * only partially written before a crash).
+	 */
+	private static int recover(final MappedByteBuffer buffer) {
+		final var recoveryCrc = new CRC32();
+
+		var offset = 0;
+		while (offset + RECORD_HEADER_LENGTH <= buffer.capacity()) {
+			final var length = buffer.getInt(offset);
+			if (length == END_OF_SEGMENT) {
+				// Make the next append start a new segment
+				return buffer.capacity();
+			}
+			if (length <= 0 || offset + RECORD_HEADER_LENGTH + length > buffer.capacity()) {
+				break;
+			}
+
+			recoveryCrc.reset();
+			recoveryCrc.update(buffer.slice(offset + RECORD_HEADER_LENGTH, length));
+			if ((int) recoveryCrc.getValue() != buffer.getInt(offset + 4)) {
+				break;
+			}
+
+			offset += RECORD_HEADER_LENGTH + length;
+		}
+
+		for (var i = offset; i < buffer.capacity() && i < offset + RECORD_HEADER_LENGTH; i++) {
+			if (buffer.get(i) != 0) {
+				LOG.warn("Discarding incomplete journal record at offset {}", offset);
+				for (var j = offset; j < buffer.capacity(); j++) {
+					buffer.put(j, (byte) 0);
+				}
+				break;
+			}
+		}
+
+		return offset;
+	}
+
+	private JournalPosition readCheckpoint() {
+		final var segment = checkpointBuffer.getLong(0);
+		final var offset = checkpointBuffer.getInt(8);
+
+		final var checkpointCrc = new CRC32();
+		checkpointCrc.update(checkpointBuffer.slice(0, 12));
+		if ((int) checkpointCrc.getValue() != checkpointBuffer.getInt(12)) {
+			// No checkpoint written yet, start from the first segment there is
+			return new JournalPosition(segments.isEmpty() ? 0 : segments.firstKey(), 0);
+		}
+
+		return new JournalPosition(segment, offset);
+	}
+
+	private void writeCheckpoint(final JournalPosition position) {
+		checkpointBuffer.putLong(0, position.segment());
+		checkpointBuffer.putInt(8, position.offset());
+
+		final var checkpointCrc = new CRC32();
+		checkpointCrc.update(checkpointBuffer.slice(0, 12));
+		checkpointBuffer.putInt(12, (int) checkpointCrc.getValue());
+	}
+
+	private Path segmentPath(final long segment) {
+		return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+	}
+
+	private static MappedByteBuffer map(final Path path, final int size) throws IOException {
+		try (var channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+	}
+}
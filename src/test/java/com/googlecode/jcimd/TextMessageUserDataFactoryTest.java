@@ -70,6 +70,20 @@ class TextMessageUserDataFactoryTest {
 		});
 	}
 
+	@Test
+	void createsUtf16EncodedUserDataWhenTextMessageContainsSurrogatePairs() {
+		final UserData[] uds = TextMessageUserDataFactory.newInstance("\uD83D\uDE00");
+		assertThat(uds)
+			.isNotNull()
+			.hasSize(1);
+
+		final UserData ud = uds[0];
+		assertThat(ud.getDataCodingScheme()).isEqualTo((byte) 0x08);
+		assertThat(ud.getBinaryBody()).isEqualTo(new byte[] {
+			(byte) 0xD8, 0x3D, (byte) 0xDE, 0x00
+		});
+	}
+
 	@Test
 	void createsConcatenatedMessageUsingUserDataHeader() {
 		final UserData[] uds = TextMessageUserDataFactory.newInstance("first part" + ", 2nd part", 15);
@@ -15,15 +15,19 @@
  */
 package com.googlecode.jcimd.charset;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class Gsm7BitPackedCharsetTest {
 
@@ -38,6 +42,71 @@ class Gsm7BitPackedCharsetTest {
 		encoder = charset.newEncoder();
 	}
 
+	@Test
+	void usesVectorizedPackingWhenAvailable() {
+		assumeTrue(Gsm7BitPacking.isVectorAvailable(), "Vector API isn't available");
+		assumeTrue(!"false".equalsIgnoreCase(System.getProperty(Gsm7BitPacking.VECTOR_PROPERTY)));
+
+		// The tests below then run through the vectorized bulk paths
+		assertThat(Gsm7BitPacking.getInstance().isVectorized()).isTrue();
+	}
+
+	@Test
+	void encodesAndDecodesMessagesOfEveryLength() throws Exception {
+		// Characters with the same value in GSM 03.38 and ASCII
+		final String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789 ";
+		final Random random = new Random(0);
+		for (int length = 1; length <= 200; length++) {
+			final StringBuilder builder = new StringBuilder(length);
+			for (int i = 0; i < length; i++) {
+				builder.append(characters.charAt(random.nextInt(characters.length())));
+			}
+			final String string = builder.toString();
+
+			final ByteBuffer encoded = encoder.encode(CharBuffer.wrap(string));
+			final byte[] actuals = new byte[encoded.remaining()];
+			encoded.duplicate().get(actuals);
+
+			assertThat(actuals).as(string).isEqualTo(pack(string));
+			assertThat(decoder.decode(encoded).toString()).isEqualTo(string);
+		}
+	}
+
+	@Test
+	void encodesAndDecodesEscapedCharacters() throws Exception {
+		// 1.75 bytes per character, more than the encoder starts out with
+		final String string = "\u20AC".repeat(40);
+		final ByteBuffer encoded = charset.encode(string);
+
+		assertThat(encoded.remaining()).isEqualTo(70);
+		assertThat(decoder.decode(encoded).toString()).isEqualTo(string);
+	}
+
+	@Test
+	void encodesIntoSmallBuffer() throws Exception {
+		final String string = "{abc}[123]~\u20AC^".repeat(20);
+		final CharBuffer in = CharBuffer.wrap(string);
+		final ByteBuffer out = ByteBuffer.allocate(5);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CoderResult result;
+		do {
+			result = encoder.encode(in, out, true);
+			bytes.write(out.array(), 0, out.position());
+			out.clear();
+		} while (result.isOverflow());
+		do {
+			result = encoder.flush(out);
+			bytes.write(out.array(), 0, out.position());
+			out.clear();
+		} while (result.isOverflow());
+
+		final ByteBuffer encoded = charset.newEncoder().encode(CharBuffer.wrap(string));
+		final byte[] expecteds = new byte[encoded.remaining()];
+		encoded.get(expecteds);
+		assertThat(bytes.toByteArray()).isEqualTo(expecteds);
+		assertThat(decoder.decode(ByteBuffer.wrap(bytes.toByteArray())).toString()).isEqualTo(string);
+	}
+
 	@Test
 	void decodesAlphaNumericCharacters() throws Exception {
 		final ByteBuffer byteBuffer = ByteBuffer.wrap(
@@ -216,4 +285,22 @@ class Gsm7BitPackedCharsetTest {
 
 		assertThat(bytes).isEqualTo(expecteds);
 	}
+
+	/**
+	 * Packs the septets bit by bit, with an escape filling the last octet
+	 * when it would otherwise hold a whole zero septet.
+	 */
+	private static byte[] pack(final String string) {
+		final String septets = string.length() % 8 == 7 ? string + (char) 0x1B : string;
+		final byte[] bytes = new byte[(septets.length() * 7 + 7) / 8];
+		for (int i = 0; i < septets.length(); i++) {
+			for (int bit = 0; bit < 7; bit++) {
+				if ((septets.charAt(i) >> bit & 1) != 0) {
+					final int position = i * 7 + bit;
+					bytes[position / 8] |= (byte) (1 << position % 8);
+				}
+			}
+		}
+		return bytes;
+	}
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.jcimd.charset;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class Gsm7BitPackingTest {
+
+	// "hello world" and its packed bytes, as in Gsm7BitPackedCharsetTest, padded to two groups with '@'
+	private static final byte[] SEPTETS = {
+		0x68, 0x65, 0x6C, 0x6C, 0x6F, 0x20, 0x77, 0x6F,
+		0x72, 0x6C, 0x64, 0x00, 0x00, 0x00, 0x00, 0x00
+	};
+	private static final byte[] OCTETS = {
+		(byte) 0xE8, (byte) 0x32, (byte) 0x9B, (byte) 0xFD,
+		(byte) 0x06, (byte) 0xDD, (byte) 0xDF, (byte) 0x72,
+		(byte) 0x36, (byte) 0x19, (byte) 0x00, (byte) 0x00,
+		(byte) 0x00, (byte) 0x00
+	};
+
+	@Test
+	void scalarPacksAndUnpacks() {
+		assertPacksAndUnpacks(Gsm7BitPacking.scalar());
+	}
+
+	@Test
+	void vectorPacksAndUnpacks() {
+		assumeTrue(Gsm7BitPacking.isVectorAvailable(), "Vector API isn't available");
+
+		assertPacksAndUnpacks(Gsm7BitPacking.vector());
+	}
+
+	@Test
+	void vectorPacksAndUnpacksAsScalar() {
+		assumeTrue(Gsm7BitPacking.isVectorAvailable(), "Vector API isn't available");
+
+		final Gsm7BitPacking scalar = Gsm7BitPacking.scalar();
+		final Gsm7BitPacking vector = Gsm7BitPacking.vector();
+		final Random random = new Random(4711);
+		for (int i = 0; i < 1000; i++) {
+			// Any number of groups, at any offset, with or without room to spare
+			final int groups = random.nextInt(32);
+			final int offset = random.nextInt(8);
+			final byte[] octets = new byte[offset + 7 * groups + random.nextInt(16)];
+			random.nextBytes(octets);
+
+			final byte[] scalarSeptets = new byte[offset + 8 * groups + random.nextInt(16)];
+			final byte[] vectorSeptets = scalarSeptets.clone();
+			scalar.unpack(octets, offset, scalarSeptets, offset, groups);
+			vector.unpack(octets, offset, vectorSeptets, offset, groups);
+			assertThat(vectorSeptets).isEqualTo(scalarSeptets);
+
+			final byte[] scalarOctets = new byte[octets.length];
+			final byte[] vectorOctets = new byte[octets.length];
+			scalar.pack(scalarSeptets, offset, scalarOctets, offset, groups);
+			vector.pack(scalarSeptets, offset, vectorOctets, offset, groups);
+			assertThat(vectorOctets).isEqualTo(scalarOctets);
+			assertThat(Arrays.copyOfRange(vectorOctets, offset, offset + 7 * groups))
+				.isEqualTo(Arrays.copyOfRange(octets, offset, offset + 7 * groups));
+		}
+	}
+
+	private static void assertPacksAndUnpacks(final Gsm7BitPacking packing) {
+		final byte[] octets = new byte[OCTETS.length];
+		packing.pack(SEPTETS, 0, octets, 0, 2);
+		assertThat(octets).isEqualTo(OCTETS);
+
+		final byte[] septets = new byte[SEPTETS.length];
+		packing.unpack(OCTETS, 0, septets, 0, 2);
+		assertThat(septets).isEqualTo(SEPTETS);
+	}
+}
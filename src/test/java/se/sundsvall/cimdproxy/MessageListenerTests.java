@@ -1,5 +1,9 @@
 package se.sundsvall.cimdproxy;
 
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,9 +13,13 @@ import se.sundsvall.cimdproxy.cimd.CIMD;
 import se.sundsvall.cimdproxy.cimd.CIMDMessage;
 import se.sundsvall.cimdproxy.cimd.CIMDMessageListener;
 import se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration;
+import se.sundsvall.cimdproxy.journal.SubmitJournal;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -23,12 +31,14 @@ class MessageListenerTests {
 	private CIMD mockCIMD;
 	@Mock
 	private SmsSenderIntegration mockSmsSenderIntegration;
+	@Mock
+	private SubmitJournal mockSubmitJournal;
 
 	private MessageListener messageListener;
 
 	@BeforeEach
 	void setUp() {
-		messageListener = new MessageListener(mockCIMD, mockSmsSenderIntegration);
+		messageListener = new MessageListener(mockCIMD, mockSmsSenderIntegration, Optional.empty());
 
 		verify(mockCIMD, times(1)).start(any(CIMDMessageListener.class));
 	}
@@ -54,4 +64,81 @@ class MessageListenerTests {
 
 		verify(mockSmsSenderIntegration, times(1)).sendSms(any(String.class), any(String.class));
 	}
+
+	@Test
+	void testHandleMessageAsyncRunsOnGivenExecutor() {
+		when(mockSmsSenderIntegration.sendSms(any(String.class), any(String.class)))
+			.thenReturn(true);
+
+		var executor = spy(new DirectExecutor());
+
+		var result = messageListener.handleMessageAsync(new CIMDMessage("", ""), executor);
+		assertThat(result.toCompletableFuture()).isCompletedWithValue(true);
+
+		verify(executor, times(1)).execute(any(Runnable.class));
+		verify(mockSmsSenderIntegration, times(1)).sendSms(any(String.class), any(String.class));
+	}
+
+	@Test
+	void testHandleMessageAsyncWhenBatchingIsEnabled() {
+		when(mockSmsSenderIntegration.isBatchingEnabled()).thenReturn(true);
+		when(mockSmsSenderIntegration.sendSmsBatched(any(String.class), any(String.class)))
+			.thenReturn(CompletableFuture.completedFuture(true));
+
+		var executor = spy(new DirectExecutor());
+
+		var result = messageListener.handleMessageAsync(new CIMDMessage("", ""), executor);
+		assertThat(result.toCompletableFuture()).isCompletedWithValue(true);
+
+		verify(executor, never()).execute(any(Runnable.class));
+		verify(mockSmsSenderIntegration, never()).sendSms(any(String.class), any(String.class));
+		verify(mockSmsSenderIntegration, times(1)).sendSmsBatched(any(String.class), any(String.class));
+	}
+
+	@Test
+	void testHandleMessageAsyncWhenAsyncClientIsEnabled() {
+		when(mockSmsSenderIntegration.isAsyncEnabled()).thenReturn(true);
+		when(mockSmsSenderIntegration.sendSmsAsync(any(String.class), any(String.class)))
+			.thenReturn(CompletableFuture.completedFuture(true));
+
+		var executor = spy(new DirectExecutor());
+
+		var result = messageListener.handleMessageAsync(new CIMDMessage("", ""), executor);
+		assertThat(result.toCompletableFuture()).isCompletedWithValue(true);
+
+		verify(executor, never()).execute(any(Runnable.class));
+		verify(mockSmsSenderIntegration, never()).sendSms(any(String.class), any(String.class));
+		verify(mockSmsSenderIntegration, times(1)).sendSmsAsync(any(String.class), any(String.class));
+	}
+
+	@Test
+	void testHandleMessageAsyncWhenJournalIsEnabled() throws Exception {
+		var journaledMessageListener = new MessageListener(mockCIMD, mockSmsSenderIntegration, Optional.of(mockSubmitJournal));
+
+		var result = journaledMessageListener.handleMessageAsync(new CIMDMessage("0701740605", "someMessage"), new DirectExecutor());
+		assertThat(result.toCompletableFuture()).isCompletedWithValue(true);
+
+		verify(mockSubmitJournal, times(1)).append("0701740605", "someMessage");
+		verify(mockSmsSenderIntegration, never()).sendSms(any(String.class), any(String.class));
+	}
+
+	@Test
+	void testHandleMessageAsyncWhenJournalAppendFails() throws Exception {
+		doThrow(new IOException("dummy")).when(mockSubmitJournal).append(any(String.class), any(String.class));
+
+		var journaledMessageListener = new MessageListener(mockCIMD, mockSmsSenderIntegration, Optional.of(mockSubmitJournal));
+
+		var result = journaledMessageListener.handleMessageAsync(new CIMDMessage("0701740605", "someMessage"), new DirectExecutor());
+		assertThat(result.toCompletableFuture()).isCompletedExceptionally();
+
+		verify(mockSmsSenderIntegration, never()).sendSms(any(String.class), any(String.class));
+	}
+
+	static class DirectExecutor implements Executor {
+
+		@Override
+		public void execute(final Runnable command) {
+			command.run();
+		}
+	}
 }
@@ -0,0 +1,151 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.Parameter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.cimdproxy.cimd.CIMDPacketDecoderTests.serialize;
+
+class CIMDAdapterTests {
+
+	private static final int MAX_IN_FLIGHT = 2;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	// Messages handed to the listener, completed by the tests
+	private final List<CompletableFuture<Boolean>> handled = new ArrayList<>();
+
+	private EmbeddedChannel channel;
+
+	@BeforeEach
+	void setUp() {
+		connect(new CIMDProperties.RateLimit(CIMDProperties.RateLimit.Mode.REJECT, null, null, null));
+	}
+
+	@AfterEach
+	void tearDown() {
+		channel.finishAndReleaseAll();
+	}
+
+	private void connect(final CIMDProperties.RateLimit rateLimit) {
+		var listener = new CIMDMessageListener() {
+
+			@Override
+			public boolean handleMessage(final CIMDMessage message) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public CompletionStage<Boolean> handleMessageAsync(final CIMDMessage message, final Executor executor) {
+				var future = new CompletableFuture<Boolean>();
+				handled.add(future);
+				return future;
+			}
+		};
+		var logging = new CIMDProperties.Logging(CIMDProperties.Logging.Mode.SUMMARY, 0, Duration.ofMinutes(1),
+			new CIMDProperties.Logging.Async(false, 8192, false));
+		var rateLimiter = new SubmitRateLimiter(rateLimit);
+
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(false),
+			new CIMDAdapter(listener, Runnable::run, 16, MAX_IN_FLIGHT, logging, new CIMDMetrics(meterRegistry), rateLimiter, null));
+	}
+
+	@Test
+	void testReadingIsPausedWhileTooManySubmitsInFlight() throws Exception {
+		submit(1);
+		assertThat(channel.config().isAutoRead()).isTrue();
+
+		submit(3);
+		assertThat(channel.config().isAutoRead()).isFalse();
+
+		// Completed off the event loop, as by the listener executor
+		var completer = Thread.ofPlatform().start(() -> handled.getFirst().complete(true));
+		completer.join();
+		channel.runPendingTasks();
+
+		assertThat(channel.config().isAutoRead()).isTrue();
+		assertThat(readsPaused(ReadPauseController.Reason.IN_FLIGHT)).isOne();
+	}
+
+	@Test
+	void testReadingIsPausedWhileUnwritable() throws Exception {
+		submit(1);
+		submit(3);
+		channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+
+		assertThat(channel.isWritable()).isFalse();
+		handled.forEach(future -> future.complete(true));
+		channel.runPendingTasks();
+
+		// No longer too many submits in flight, but still unwritable
+		assertThat(channel.config().isAutoRead()).isFalse();
+
+		channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true);
+
+		assertThat(channel.config().isAutoRead()).isTrue();
+		assertThat(readsPaused(ReadPauseController.Reason.UNWRITABLE)).isOne();
+		assertThat(readsPaused(ReadPauseController.Reason.IN_FLIGHT)).isOne();
+	}
+
+	@Test
+	void testSubmitsAreAnsweredAsTheyComplete() throws Exception {
+		channel.releaseOutbound();
+
+		submit(1);
+		submit(3);
+		handled.get(1).complete(true);
+		handled.get(0).complete(false);
+		channel.runPendingTasks();
+
+		assertThat(channel.outboundMessages())
+			.extracting(message -> ((Packet) message).getSequenceNumber())
+			.containsExactly(3, 1);
+		assertThat(channel.outboundMessages())
+			.extracting(message -> ((Packet) message).getParameter(Parameter.ERROR_CODE) == null)
+			.containsExactly(true, false);
+	}
+
+	@Test
+	void testSubmitRejectedByWindowIsNotRateLimited() throws Exception {
+		channel.finishAndReleaseAll();
+		connect(new CIMDProperties.RateLimit(CIMDProperties.RateLimit.Mode.REJECT,
+			new CIMDProperties.RateLimit.Limit(0.001, 2), null, null));
+
+		submit(1);
+		// Already in flight, so turned away by the window without using up the second submit of the burst
+		submit(1);
+		submit(3);
+
+		assertThat(handled).hasSize(2);
+		assertThat(submits(CIMDMetrics.OUTCOME_CONGESTED)).isOne();
+		assertThat(submits(CIMDMetrics.OUTCOME_RATE_LIMITED)).isZero();
+	}
+
+	private void submit(final int sequenceNumber) throws Exception {
+		var packet = new Packet(Packet.OP_SUBMIT_MESSAGE, sequenceNumber,
+			new Parameter(Parameter.DESTINATION_ADDRESS, "+46701740605"),
+			new Parameter(Parameter.USER_DATA, "Hello"));
+
+		channel.writeInbound(Unpooled.wrappedBuffer(serialize(packet, false)));
+	}
+
+	private long readsPaused(final ReadPauseController.Reason reason) {
+		return meterRegistry.get(CIMDMetrics.READS_PAUSED).tag("reason", reason.tag()).timer().count();
+	}
+
+	private double submits(final String outcome) {
+		return meterRegistry.get(CIMDMetrics.SUBMITS).tag("outcome", outcome).counter().count();
+	}
+}
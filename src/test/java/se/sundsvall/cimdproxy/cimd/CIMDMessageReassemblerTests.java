@@ -0,0 +1,178 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.cimdproxy.cimd.CIMDMessageReassembler.Result;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties.Reassembly;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties.Reassembly.TimeoutPolicy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CIMDMessageReassemblerTests {
+
+	private static final String USER_ID = "user";
+	private static final String DESTINATION_ADDRESS = "+46701740605";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void testPartsAreReassembledInSequenceOrder() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.DISCARD, 100);
+
+		assertThat(add(reassembler, USER_ID, "third", 1, 3, 3).status()).isEqualTo(Result.Status.PENDING);
+		assertThat(add(reassembler, USER_ID, "first ", 1, 3, 1).status()).isEqualTo(Result.Status.PENDING);
+		assertThat(pendingMessages()).isOne();
+		assertThat(pendingParts()).isEqualTo(2);
+
+		var result = add(reassembler, USER_ID, "second ", 1, 3, 2);
+
+		assertThat(result.status()).isEqualTo(Result.Status.COMPLETE);
+		assertThat(result.message()).isEqualTo(new CIMDMessage(DESTINATION_ADDRESS, "first second third"));
+		assertThat(pendingMessages()).isZero();
+		assertThat(pendingParts()).isZero();
+	}
+
+	@Test
+	void testPartsOfNothingAreCompleteAsIs() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.DISCARD, 100);
+
+		assertThat(add(reassembler, USER_ID, "single", 1, 1, 1)).isEqualTo(Result.complete(new CIMDMessage(DESTINATION_ADDRESS, "single")));
+		assertThat(add(reassembler, USER_ID, "zero", 1, 2, 0)).isEqualTo(Result.complete(new CIMDMessage(DESTINATION_ADDRESS, "zero")));
+		assertThat(add(reassembler, USER_ID, "beyond", 1, 2, 3)).isEqualTo(Result.complete(new CIMDMessage(DESTINATION_ADDRESS, "beyond")));
+		assertThat(pendingParts()).isZero();
+	}
+
+	@Test
+	void testResentPartIsOnlyCountedOnce() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.DISCARD, 100);
+
+		add(reassembler, USER_ID, "first ", 1, 2, 1);
+		add(reassembler, USER_ID, "resent ", 1, 2, 1);
+
+		assertThat(pendingParts()).isOne();
+		assertThat(add(reassembler, USER_ID, "second", 1, 2, 2).message().content()).isEqualTo("resent second");
+		assertThat(pendingParts()).isZero();
+	}
+
+	@Test
+	void testPartsAreKeptApartByUserAndReference() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.DISCARD, 100);
+
+		add(reassembler, USER_ID, "a1 ", 1, 2, 1);
+		add(reassembler, "other", "b1 ", 1, 2, 1);
+		add(reassembler, USER_ID, "c1 ", 2, 2, 1);
+
+		assertThat(pendingMessages()).isEqualTo(3);
+		assertThat(add(reassembler, USER_ID, "a2", 1, 2, 2).message().content()).isEqualTo("a1 a2");
+		assertThat(add(reassembler, "other", "b2", 1, 2, 2).message().content()).isEqualTo("b1 b2");
+		assertThat(add(reassembler, USER_ID, "c2", 2, 2, 2).message().content()).isEqualTo("c1 c2");
+	}
+
+	@Test
+	void testReusedReferenceDiscardsIncompleteMessage() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.DISCARD, 100);
+
+		add(reassembler, USER_ID, "old1 ", 1, 3, 1);
+		add(reassembler, USER_ID, "old2 ", 1, 3, 2);
+
+		// Same reference, but a different number of parts
+		assertThat(add(reassembler, USER_ID, "new1 ", 1, 2, 1).status()).isEqualTo(Result.Status.PENDING);
+
+		assertThat(pendingParts()).isOne();
+		assertThat(incomplete("reference-reused")).isOne();
+		assertThat(add(reassembler, USER_ID, "new2", 1, 2, 2).message().content()).isEqualTo("new1 new2");
+	}
+
+	@Test
+	void testNewPartsAreTurnedAwayWhenFull() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.DISCARD, 2);
+
+		add(reassembler, USER_ID, "a1 ", 1, 3, 1);
+		add(reassembler, USER_ID, "b1 ", 2, 3, 1);
+
+		assertThat(add(reassembler, USER_ID, "c1 ", 3, 3, 1)).isEqualTo(Result.FULL);
+		assertThat(add(reassembler, USER_ID, "a2 ", 1, 3, 2)).isEqualTo(Result.FULL);
+		assertThat(pendingMessages()).isEqualTo(2);
+		assertThat(pendingParts()).isEqualTo(2);
+
+		// Resending a part held already doesn't hold any more parts
+		assertThat(add(reassembler, USER_ID, "a1 ", 1, 3, 1).status()).isEqualTo(Result.Status.PENDING);
+		assertThat(pendingParts()).isEqualTo(2);
+	}
+
+	@Test
+	void testLastPartIsAcceptedWhenFull() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.DISCARD, 2);
+
+		add(reassembler, USER_ID, "a1 ", 1, 3, 1);
+		add(reassembler, USER_ID, "a2 ", 1, 3, 2);
+
+		assertThat(add(reassembler, USER_ID, "a3", 1, 3, 3).message().content()).isEqualTo("a1 a2 a3");
+		assertThat(pendingParts()).isZero();
+	}
+
+	@Test
+	void testMessagesNotExpiredAreKept() {
+		var reassembler = reassembler(Duration.ofMinutes(1), TimeoutPolicy.FORWARD_PARTIAL, 100);
+		var forwarded = new ArrayList<CIMDMessage>();
+
+		add(reassembler, USER_ID, "first ", 1, 2, 1);
+		reassembler.evictExpired(forwarded::add);
+
+		assertThat(forwarded).isEmpty();
+		assertThat(pendingMessages()).isOne();
+		assertThat(incomplete("timeout")).isZero();
+	}
+
+	@Test
+	void testExpiredMessagesAreForwardedAsFarAsTheyGo() {
+		var reassembler = reassembler(Duration.ZERO, TimeoutPolicy.FORWARD_PARTIAL, 100);
+		var forwarded = new ArrayList<CIMDMessage>();
+
+		add(reassembler, USER_ID, "first ", 1, 3, 1);
+		add(reassembler, USER_ID, "third", 1, 3, 3);
+		reassembler.evictExpired(forwarded::add);
+
+		assertThat(forwarded).containsExactly(new CIMDMessage(DESTINATION_ADDRESS, "first third"));
+		assertThat(pendingMessages()).isZero();
+		assertThat(pendingParts()).isZero();
+		assertThat(incomplete("timeout")).isOne();
+	}
+
+	@Test
+	void testExpiredMessagesAreDiscarded() {
+		var reassembler = reassembler(Duration.ZERO, TimeoutPolicy.DISCARD, 100);
+		var forwarded = new ArrayList<CIMDMessage>();
+
+		add(reassembler, USER_ID, "first ", 1, 2, 1);
+		reassembler.evictExpired(forwarded::add);
+
+		assertThat(forwarded).isEmpty();
+		assertThat(pendingMessages()).isZero();
+		assertThat(pendingParts()).isZero();
+		assertThat(incomplete("timeout")).isOne();
+	}
+
+	private CIMDMessageReassembler reassembler(final Duration timeout, final TimeoutPolicy timeoutPolicy, final int maxPendingParts) {
+		return new CIMDMessageReassembler(new Reassembly(true, timeout, timeoutPolicy, maxPendingParts), new CIMDMetrics(meterRegistry));
+	}
+
+	private static Result add(final CIMDMessageReassembler reassembler, final String userId, final String content, final int reference, final int total, final int sequence) {
+		return reassembler.add(userId, new CIMDMessage(DESTINATION_ADDRESS, content), new CIMDPacket.Concatenation(reference, total, sequence));
+	}
+
+	private double pendingMessages() {
+		return meterRegistry.get(CIMDMetrics.REASSEMBLY_PENDING_MESSAGES).gauge().value();
+	}
+
+	private double pendingParts() {
+		return meterRegistry.get(CIMDMetrics.REASSEMBLY_PENDING_PARTS).gauge().value();
+	}
+
+	private double incomplete(final String reason) {
+		return meterRegistry.get(CIMDMetrics.REASSEMBLY_INCOMPLETE).tag("reason", reason).counter().count();
+	}
+}
@@ -0,0 +1,245 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.PacketSerializer;
+import com.googlecode.jcimd.Parameter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class CIMDPacketDecoderTests {
+
+	private static final Packet SUBMIT = new Packet(Packet.OP_SUBMIT_MESSAGE, 7,
+		new Parameter(Parameter.DESTINATION_ADDRESS, "+46701740605"),
+		new Parameter(Parameter.USER_DATA, "Hello world"));
+
+	private EmbeddedChannel channel;
+
+	@AfterEach
+	void tearDown() {
+		if (channel != null) {
+			channel.finishAndReleaseAll();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {
+		true, false
+	})
+	void testDecodesPacketSerializedByPacketSerializer(final boolean useChecksum) throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(useChecksum));
+
+		assertThat(channel.writeInbound(Unpooled.wrappedBuffer(serialize(SUBMIT, useChecksum)))).isTrue();
+
+		CIMDPacketView view = channel.readInbound();
+		try {
+			assertThat(view.getOperationCode()).isEqualTo(Packet.OP_SUBMIT_MESSAGE);
+			assertThat(view.getSequenceNumber()).isEqualTo(7);
+			assertThat(view.getParameterCount()).isEqualTo(2);
+			assertThat(view.getValue(Parameter.DESTINATION_ADDRESS)).isEqualTo("+46701740605");
+			assertThat(view.getValue(Parameter.USER_DATA)).isEqualTo("Hello world");
+			assertThat(view.toPacket()).isEqualTo(SUBMIT);
+		} finally {
+			view.release();
+		}
+	}
+
+	@Test
+	void testDecodesPacketWithoutParameters() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+
+		channel.writeInbound(Unpooled.wrappedBuffer(serialize(new Packet(Packet.OP_ALIVE, 1), true)));
+
+		CIMDPacketView view = channel.readInbound();
+		try {
+			assertThat(view.getOperationCode()).isEqualTo(Packet.OP_ALIVE);
+			assertThat(view.getSequenceNumber()).isEqualTo(1);
+			assertThat(view.getParameterCount()).isZero();
+		} finally {
+			view.release();
+		}
+	}
+
+	@Test
+	void testDecodesMoreParametersThanInitiallyIndexed() throws Exception {
+		var parameters = new Parameter[20];
+		for (var i = 0; i < parameters.length; i++) {
+			parameters[i] = new Parameter(100 + i, "value " + i);
+		}
+		var packet = new Packet(Packet.OP_SUBMIT_MESSAGE, 1, parameters);
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+
+		channel.writeInbound(Unpooled.wrappedBuffer(serialize(packet, true)));
+
+		CIMDPacketView view = channel.readInbound();
+		try {
+			assertThat(view.toPacket()).isEqualTo(packet);
+		} finally {
+			view.release();
+		}
+	}
+
+	@Test
+	void testDecodesPacketsWithGarbageBetweenThem() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		var alive = new Packet(Packet.OP_ALIVE, 9);
+
+		channel.writeInbound(Unpooled.wrappedBuffer("garbage".getBytes(ISO_8859_1), serialize(SUBMIT, true),
+			"\r\n".getBytes(ISO_8859_1), serialize(alive, true)));
+
+		CIMDPacketView first = channel.readInbound();
+		CIMDPacketView second = channel.readInbound();
+		try {
+			assertThat(first.toPacket()).isEqualTo(SUBMIT);
+			assertThat(second.toPacket()).isEqualTo(alive);
+			assertThat((Object) channel.readInbound()).isNull();
+		} finally {
+			first.release();
+			second.release();
+		}
+	}
+
+	@Test
+	void testDecodesPacketSplitAcrossReads() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		var bytes = serialize(SUBMIT, true);
+
+		// One byte at a time, so that every possible split is covered
+		for (var i = 0; i < bytes.length - 1; i++) {
+			assertThat(channel.writeInbound(Unpooled.wrappedBuffer(bytes, i, 1))).isFalse();
+		}
+		assertThat(channel.writeInbound(Unpooled.wrappedBuffer(bytes, bytes.length - 1, 1))).isTrue();
+
+		CIMDPacketView view = channel.readInbound();
+		try {
+			assertThat(view.toPacket()).isEqualTo(SUBMIT);
+		} finally {
+			view.release();
+		}
+	}
+
+	@Test
+	void testBadChecksumIsRejected() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		var bytes = serialize(SUBMIT, true);
+		// Flip the last digit of the checksum, just before <ETX>
+		bytes[bytes.length - 2] = (byte) (bytes[bytes.length - 2] == '0' ? '1' : '0');
+		var frame = Unpooled.wrappedBuffer(bytes);
+
+		assertThatExceptionOfType(CorruptedFrameException.class)
+			.isThrownBy(() -> channel.writeInbound(frame))
+			.withMessageStartingWith("Checksum error");
+		assertThat(frame.refCnt()).isZero();
+	}
+
+	@Test
+	void testNonHexChecksumIsRejected() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		var bytes = serialize(SUBMIT, true);
+		bytes[bytes.length - 3] = 'X';
+
+		assertThatExceptionOfType(CorruptedFrameException.class)
+			.isThrownBy(() -> channel.writeInbound(Unpooled.wrappedBuffer(bytes)))
+			.withMessageStartingWith("Checksum error: expecting HEX digits");
+	}
+
+	@Test
+	void testPacketAfterCorruptedFrameIsDecoded() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		var corrupted = serialize(SUBMIT, true);
+		corrupted[corrupted.length - 2] = (byte) (corrupted[corrupted.length - 2] == '0' ? '1' : '0');
+
+		assertThatExceptionOfType(CorruptedFrameException.class)
+			.isThrownBy(() -> channel.writeInbound(Unpooled.wrappedBuffer(corrupted)));
+		channel.writeInbound(Unpooled.wrappedBuffer(serialize(SUBMIT, true)));
+
+		CIMDPacketView view = channel.readInbound();
+		try {
+			assertThat(view.toPacket()).isEqualTo(SUBMIT);
+		} finally {
+			view.release();
+		}
+	}
+
+	@Test
+	void testFrameWithoutStxIsRejected() {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(false));
+
+		assertThatExceptionOfType(CorruptedFrameException.class)
+			.isThrownBy(() -> channel.writeInbound(frame("03:001\t\3")))
+			.withMessage("Reached <ETX> byte and still no <STX> byte");
+	}
+
+	@Test
+	void testMalformedHeaderIsRejected() {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(false));
+
+		assertThatExceptionOfType(CorruptedFrameException.class)
+			.isThrownBy(() -> channel.writeInbound(frame("\2" + "3x:001\t\3")))
+			.withMessage("Expecting 0x3a but got 0x78");
+	}
+
+	@Test
+	void testOperationCodeOutOfRangeIsRejected() {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(false));
+
+		assertThatExceptionOfType(CorruptedFrameException.class)
+			.isThrownBy(() -> channel.writeInbound(frame("\2" + "00:001\t\3")))
+			.withMessage("Operation code must be between 1 and 99, but got 0");
+	}
+
+	@Test
+	void testTooLongFrameIsRejected() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		var tooLong = new byte[CIMDPacketDecoder.MAX_PACKET_SIZE + 1];
+		Arrays.fill(tooLong, (byte) 'x');
+		tooLong[0] = PacketSerializer.STX;
+
+		assertThatExceptionOfType(TooLongFrameException.class)
+			.isThrownBy(() -> channel.writeInbound(Unpooled.wrappedBuffer(tooLong)));
+
+		// The overflowing bytes are discarded, so the next packet is decoded
+		channel.writeInbound(Unpooled.wrappedBuffer(serialize(SUBMIT, true)));
+
+		CIMDPacketView view = channel.readInbound();
+		try {
+			assertThat(view.toPacket()).isEqualTo(SUBMIT);
+		} finally {
+			view.release();
+		}
+	}
+
+	@Test
+	void testFrameOfMaxPacketSizeIsWaitedFor() {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		var partial = new byte[CIMDPacketDecoder.MAX_PACKET_SIZE];
+		Arrays.fill(partial, (byte) 'x');
+		partial[0] = PacketSerializer.STX;
+
+		assertThat(channel.writeInbound(Unpooled.wrappedBuffer(partial))).isFalse();
+	}
+
+	private static ByteBuf frame(final String frame) {
+		return Unpooled.copiedBuffer(frame, ISO_8859_1);
+	}
+
+	static byte[] serialize(final Packet packet, final boolean useChecksum) throws IOException {
+		var out = new ByteArrayOutputStream();
+		PacketSerializer.serializePacket(packet, null, useChecksum, out);
+
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,123 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.Parameter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.cimdproxy.cimd.CIMDPacketDecoderTests.serialize;
+
+class CIMDPacketEncoderTests {
+
+	private EmbeddedChannel channel;
+
+	@AfterEach
+	void tearDown() {
+		if (channel != null) {
+			channel.finishAndReleaseAll();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {
+		true, false
+	})
+	void testEncodedPacketIsByteEqualToPacketSerializer(final boolean useChecksum) throws Exception {
+		var packet = new Packet(Packet.OP_SUBMIT_MESSAGE + 50, 123,
+			new Parameter(Parameter.DESTINATION_ADDRESS, "+46701740605"),
+			new Parameter(Parameter.MC_TIMESTAMP, "250101120000"));
+		channel = new EmbeddedChannel(new CIMDPacketEncoder(useChecksum));
+
+		var encoded = encode(packet);
+
+		assertThat(encoded).isEqualTo(serialize(packet, useChecksum));
+		assertThat(encoded).hasSize(CIMDPacketEncoder.encodedLength(packet.getParameters(), useChecksum));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {
+		true, false
+	})
+	void testEncodedPacketWithoutParametersIsByteEqualToPacketSerializer(final boolean useChecksum) throws Exception {
+		var packet = new Packet(Packet.OP_GENERAL_ERROR_RESPONSE, 1);
+		channel = new EmbeddedChannel(new CIMDPacketEncoder(useChecksum));
+
+		assertThat(encode(packet)).isEqualTo(serialize(packet, useChecksum));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {
+		true, false
+	})
+	void testEncodedPacketsWithEveryChecksumAreByteEqualToPacketSerializer(final boolean useChecksum) throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketEncoder(useChecksum));
+
+		// Varying the value varies the checksum, covering both hex digits of each
+		for (var i = 0; i < 256; i++) {
+			var packet = new Packet(Packet.OP_SUBMIT_MESSAGE + 50, i,
+				new Parameter(Parameter.ERROR_CODE, String.valueOf(i)));
+
+			assertThat(encode(packet)).isEqualTo(serialize(packet, useChecksum));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {
+		true, false
+	})
+	void testEncodedPacketIsDecodedBackToEqualPacket(final boolean useChecksum) {
+		var packet = new Packet(Packet.OP_SUBMIT_MESSAGE, 5,
+			new Parameter(Parameter.DESTINATION_ADDRESS, "+46701740605"),
+			new Parameter(Parameter.USER_DATA, "Hello world"));
+		channel = new EmbeddedChannel(new CIMDPacketEncoder(useChecksum));
+		var decoder = new EmbeddedChannel(new CIMDPacketDecoder(useChecksum));
+
+		channel.writeOutbound(packet);
+		decoder.writeInbound((ByteBuf) channel.readOutbound());
+
+		CIMDPacketView view = decoder.readInbound();
+		try {
+			assertThat(view.toPacket()).isEqualTo(packet);
+		} finally {
+			view.release();
+			decoder.finishAndReleaseAll();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("fixedResponses")
+	void testEncodedFixedResponseIsByteEqualToPacketSerializer(final CIMDFixedResponse.Operation operation, final int sequenceNumber, final boolean useChecksum)
+		throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketEncoder(useChecksum));
+
+		var encoded = encode(new CIMDFixedResponse(operation, sequenceNumber));
+
+		assertThat(encoded).isEqualTo(serialize(new Packet(operation.operationCode(), sequenceNumber), useChecksum));
+	}
+
+	private static Stream<Arguments> fixedResponses() {
+		return Stream.of(CIMDFixedResponse.Operation.values())
+			.flatMap(operation -> Stream.of(1, 99, 255)
+				.flatMap(sequenceNumber -> Stream.of(true, false)
+					.map(useChecksum -> Arguments.of(operation, sequenceNumber, useChecksum))));
+	}
+
+	private byte[] encode(final Object message) {
+		channel.writeOutbound(message);
+
+		ByteBuf encoded = channel.readOutbound();
+		try {
+			return ByteBufUtil.getBytes(encoded);
+		} finally {
+			encoded.release();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.Parameter;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.cimdproxy.cimd.CIMDPacketDecoderTests.serialize;
+
+class CIMDPacketTests {
+
+	@Test
+	void testDecodeConcatenationWith8BitReference() {
+		assertThat(CIMDPacket.decodeConcatenation("050003CC0301"))
+			.isEqualTo(new CIMDPacket.Concatenation(0xCC, 3, 1));
+	}
+
+	@Test
+	void testDecodeConcatenationWith16BitReference() {
+		assertThat(CIMDPacket.decodeConcatenation("060804ABCD0201"))
+			.isEqualTo(new CIMDPacket.Concatenation(0xABCD, 2, 1));
+	}
+
+	@Test
+	void testDecodeConcatenationWithoutHeaderLength() {
+		assertThat(CIMDPacket.decodeConcatenation("0003CC0302"))
+			.isEqualTo(new CIMDPacket.Concatenation(0xCC, 3, 2));
+		assertThat(CIMDPacket.decodeConcatenation("0804ABCD0202"))
+			.isEqualTo(new CIMDPacket.Concatenation(0xABCD, 2, 2));
+	}
+
+	@Test
+	void testDecodeConcatenationSkipsOtherInformationElements() {
+		// Application port addressing, followed by the concatenation
+		assertThat(CIMDPacket.decodeConcatenation("0B050412340000" + "0003CC0202"))
+			.isEqualTo(new CIMDPacket.Concatenation(0xCC, 2, 2));
+	}
+
+	@Test
+	void testDecodeConcatenationIgnoresElementOfWrongLength() {
+		// Concatenation elements with 8-bit references are 3 bytes, and those with 16-bit references 4 bytes
+		assertThat(CIMDPacket.decodeConcatenation("040002CC03")).isNull();
+		assertThat(CIMDPacket.decodeConcatenation("050803ABCD02")).isNull();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"", "00", "050003CC03", "0A0003CC0301", "not hex", "050003CC030"
+	})
+	void testDecodeConcatenationWithoutConcatenation(final String userDataHeader) {
+		assertThat(CIMDPacket.decodeConcatenation(userDataHeader)).isNull();
+	}
+
+	@Test
+	void testUserDataBinaryIsDecodedByDataCodingScheme() throws Exception {
+		var packet = packet(
+			new Parameter(Parameter.DESTINATION_ADDRESS, "+46701740605"),
+			new Parameter(Parameter.DATA_CODING_SCHEME, "8"),
+			new Parameter(Parameter.USER_DATA_BINARY, "00480065006C006C006F"),
+			new Parameter(Parameter.USER_DATA_HEADER, "050003CC0201"));
+
+		assertThat(packet.getDestinationAddress()).isEqualTo("+46701740605");
+		assertThat(packet.getDataCodingScheme()).isEqualTo(DataCodingScheme.of(0x08));
+		assertThat(packet.getUserData()).isEqualTo("Hello");
+		assertThat(packet.getConcatenation()).isEqualTo(new CIMDPacket.Concatenation(0xCC, 2, 1));
+	}
+
+	@Test
+	void testUserDataBinaryOfUnsupportedDataCodingSchemeIsKeptAsIs() throws Exception {
+		var packet = packet(
+			new Parameter(Parameter.DATA_CODING_SCHEME, "32"),
+			new Parameter(Parameter.USER_DATA_BINARY, "48656C6C6F"));
+
+		assertThat(packet.getDataCodingScheme().isSupported()).isFalse();
+		assertThat(packet.getUserData()).isEqualTo("48656C6C6F");
+		assertThat(packet.getConcatenation()).isNull();
+	}
+
+	@Test
+	void testInvalidUserDataBinaryIsDecodedAsEmpty() throws Exception {
+		var packet = packet(
+			new Parameter(Parameter.DATA_CODING_SCHEME, "0"),
+			new Parameter(Parameter.USER_DATA_BINARY, "48G"));
+
+		assertThat(packet.getUserData()).isEmpty();
+	}
+
+	private static CIMDPacket packet(final Parameter... parameters) throws Exception {
+		var channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		try {
+			channel.writeInbound(Unpooled.wrappedBuffer(serialize(new Packet(Packet.OP_SUBMIT_MESSAGE, 1, parameters), true)));
+
+			CIMDPacketView view = channel.readInbound();
+			try {
+				return new CIMDPacket(view);
+			} finally {
+				view.release();
+			}
+		} finally {
+			channel.finishAndReleaseAll();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import com.googlecode.jcimd.Packet;
+import com.googlecode.jcimd.Parameter;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.cimdproxy.cimd.CIMDPacketDecoderTests.serialize;
+
+class CIMDPacketViewTests {
+
+	private static final Packet LOGIN = new Packet(Packet.OP_LOGIN, 1,
+		new Parameter(Parameter.USER_IDENTITY, "user"),
+		new Parameter(Parameter.PASSWORD, "secret"));
+
+	private EmbeddedChannel channel;
+	private CIMDPacketView view;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		channel = new EmbeddedChannel(new CIMDPacketDecoder(true));
+		channel.writeInbound(Unpooled.wrappedBuffer(serialize(LOGIN, true)));
+		view = channel.readInbound();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (view.refCnt() > 0) {
+			view.release();
+		}
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	void testParametersAreIndexedInOrderReceived() {
+		assertThat(view.getParameterCount()).isEqualTo(2);
+		assertThat(view.getParameterNumber(0)).isEqualTo(Parameter.USER_IDENTITY);
+		assertThat(view.getParameterNumber(1)).isEqualTo(Parameter.PASSWORD);
+		assertThat(view.hasParameter(Parameter.PASSWORD)).isTrue();
+		assertThat(view.hasParameter(Parameter.USER_DATA)).isFalse();
+		assertThat(view.getValue(Parameter.USER_DATA)).isNull();
+		assertThat(view.getValueBuffer(Parameter.USER_DATA)).isNull();
+	}
+
+	@Test
+	void testValuesAreReadFromFrameWhenAskedFor() {
+		var valueBuffer = view.getValueBuffer(Parameter.USER_IDENTITY);
+
+		assertThat(valueBuffer.toString(ISO_8859_1)).isEqualTo("user");
+
+		// Both the value buffer and the values share the frame, rather than holding copies of it
+		view.content().setByte(view.content().indexOf(0, view.content().writerIndex(), (byte) 'u'), 'U');
+
+		assertThat(valueBuffer.toString(ISO_8859_1)).isEqualTo("User");
+		assertThat(view.getValue(Parameter.USER_IDENTITY)).isEqualTo("User");
+	}
+
+	@Test
+	void testToPacketMaterializesAllParameters() {
+		assertThat(view.toPacket()).isEqualTo(LOGIN);
+	}
+
+	@Test
+	void testToStringDoesNotShowPassword() {
+		assertThat(view.toString())
+			.isEqualTo("<STX>01:001<TAB>010:user<TAB>011:<password-not-shown><TAB><ETX>")
+			.doesNotContain("secret");
+	}
+
+	@Test
+	void testReplaceKeepsIndex() {
+		var copy = view.copy();
+		try {
+			assertThat(copy.getOperationCode()).isEqualTo(Packet.OP_LOGIN);
+			assertThat(copy.getSequenceNumber()).isEqualTo(1);
+			assertThat(copy.getValue(Parameter.USER_IDENTITY)).isEqualTo("user");
+			assertThat(copy.toString()).isEqualTo(view.toString());
+		} finally {
+			copy.release();
+		}
+	}
+
+	@Test
+	void testReleaseReleasesFrame() {
+		var frame = view.content();
+
+		assertThat(view.release()).isTrue();
+		assertThat(frame.refCnt()).isZero();
+	}
+}
@@ -0,0 +1,62 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataCodingSchemeTests {
+
+	@ParameterizedTest
+	@CsvSource(nullValues = "null", value = {
+		// General data coding
+		"0x00, GSM_7BIT, false, null",
+		"0x04, GSM_8BIT, false, null",
+		"0x08, UCS2, false, null",
+		"0x0C, RESERVED, false, null",
+		// General data coding, with the message class bits only meaningful when bit 4 is set
+		"0x03, GSM_7BIT, false, null",
+		"0x10, GSM_7BIT, false, 0",
+		"0x15, GSM_8BIT, false, 1",
+		"0x1A, UCS2, false, 2",
+		"0x13, GSM_7BIT, false, 3",
+		// General data coding, compressed
+		"0x20, GSM_7BIT, true, null",
+		"0x39, UCS2, true, 1",
+		// Marked for automatic deletion
+		"0x40, GSM_7BIT, false, null",
+		"0x48, UCS2, false, null",
+		"0x56, GSM_8BIT, false, 2",
+		"0x75, GSM_8BIT, true, 1",
+		// Message waiting indication
+		"0xC0, GSM_7BIT, false, null",
+		"0xD8, GSM_7BIT, false, null",
+		"0xE8, UCS2, false, null",
+		// Data coding and message class
+		"0xF0, GSM_7BIT, false, 0",
+		"0xF3, GSM_7BIT, false, 3",
+		"0xF4, GSM_8BIT, false, 0",
+		"0xF6, GSM_8BIT, false, 2",
+		// Reserved coding groups
+		"0x80, RESERVED, false, null",
+		"0xBF, RESERVED, false, null"
+	})
+	void testOf(final String value, final DataCodingScheme.Alphabet alphabet, final boolean compressed, final Integer messageClass) {
+		assertThat(DataCodingScheme.of(Integer.decode(value)))
+			.isEqualTo(new DataCodingScheme(alphabet, compressed, messageClass));
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"0x00, true",
+		"0x04, true",
+		"0x08, true",
+		"0xF4, true",
+		"0x0C, false",
+		"0x20, false",
+		"0x80, false"
+	})
+	void testIsSupported(final String value, final boolean supported) {
+		assertThat(DataCodingScheme.of(Integer.decode(value)).isSupported()).isEqualTo(supported);
+	}
+}
@@ -0,0 +1,118 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.EventLoop;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import se.sundsvall.cimdproxy.cimd.ReadPauseController.Reason;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReadPauseControllerTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private EmbeddedChannel channel;
+	private ReadPauseController readPauseController;
+
+	@BeforeEach
+	void setUp() {
+		channel = new EmbeddedChannel();
+		readPauseController = new ReadPauseController(channel, new CIMDMetrics(meterRegistry));
+	}
+
+	@AfterEach
+	void tearDown() {
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	void testReadingIsPausedUntilEveryReasonIsGone() {
+		readPauseController.pause(Reason.UNWRITABLE);
+		assertThat(channel.config().isAutoRead()).isFalse();
+
+		readPauseController.pause(Reason.IN_FLIGHT);
+		readPauseController.resume(Reason.UNWRITABLE);
+		assertThat(channel.config().isAutoRead()).isFalse();
+		assertThat(readPauseController.isPaused(Reason.UNWRITABLE)).isFalse();
+		assertThat(readPauseController.isPaused(Reason.IN_FLIGHT)).isTrue();
+
+		readPauseController.resume(Reason.IN_FLIGHT);
+		assertThat(channel.config().isAutoRead()).isTrue();
+		assertThat(readsPaused(Reason.UNWRITABLE)).isOne();
+		assertThat(readsPaused(Reason.IN_FLIGHT)).isOne();
+		assertThat(readsPaused(Reason.RATE_LIMITED)).isZero();
+	}
+
+	@Test
+	void testPausingForTheSameReasonAgainIsIgnored() {
+		readPauseController.pause(Reason.RATE_LIMITED);
+		readPauseController.pause(Reason.RATE_LIMITED);
+
+		readPauseController.resume(Reason.RATE_LIMITED);
+
+		assertThat(channel.config().isAutoRead()).isTrue();
+		assertThat(readsPaused(Reason.RATE_LIMITED)).isOne();
+	}
+
+	@Test
+	void testResumingWithoutPausingIsIgnored() {
+		// Reading turned off by someone else is left alone
+		channel.config().setAutoRead(false);
+
+		readPauseController.resume(Reason.IN_FLIGHT);
+
+		assertThat(channel.config().isAutoRead()).isFalse();
+		assertThat(readsPaused(Reason.IN_FLIGHT)).isZero();
+	}
+
+	@Test
+	void testCloseRecordsEveryReasonInEffect() {
+		readPauseController.pause(Reason.UNWRITABLE);
+		readPauseController.pause(Reason.RATE_LIMITED);
+
+		readPauseController.close();
+
+		assertThat(channel.config().isAutoRead()).isTrue();
+		assertThat(readsPaused(Reason.UNWRITABLE)).isOne();
+		assertThat(readsPaused(Reason.IN_FLIGHT)).isZero();
+		assertThat(readsPaused(Reason.RATE_LIMITED)).isOne();
+	}
+
+	@Test
+	void testCallsOutsideEventLoopAreHandedOffToIt() {
+		var mockChannel = mock(Channel.class);
+		var mockEventLoop = mock(EventLoop.class);
+		var mockConfig = mock(ChannelConfig.class);
+		when(mockChannel.eventLoop()).thenReturn(mockEventLoop);
+		when(mockChannel.config()).thenReturn(mockConfig);
+		var controller = new ReadPauseController(mockChannel, new CIMDMetrics(meterRegistry));
+
+		when(mockEventLoop.inEventLoop()).thenReturn(false);
+		controller.pause(Reason.IN_FLIGHT);
+
+		verifyNoInteractions(mockConfig);
+		assertThat(controller.isPaused(Reason.IN_FLIGHT)).isFalse();
+
+		var task = ArgumentCaptor.forClass(Runnable.class);
+		verify(mockEventLoop).execute(task.capture());
+		when(mockEventLoop.inEventLoop()).thenReturn(true);
+		task.getValue().run();
+
+		verify(mockConfig).setAutoRead(false);
+		assertThat(controller.isPaused(Reason.IN_FLIGHT)).isTrue();
+	}
+
+	private long readsPaused(final Reason reason) {
+		return meterRegistry.get(CIMDMetrics.READS_PAUSED).tag("reason", reason.tag()).timer().count();
+	}
+}
@@ -0,0 +1,83 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties.RateLimit;
+import se.sundsvall.cimdproxy.configuration.CIMDProperties.RateLimit.Limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubmitRateLimiterTests {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void testSubmitRejectedByUserLimitTakesNoGlobalToken() {
+		var rateLimiter = rateLimiter(new Limit(10, 1), new Limit(1, 1), null);
+
+		assertThat(rateLimiter.tryAcquire("first")).isTrue();
+		now.addAndGet(100 * MILLIS);
+
+		assertThat(rateLimiter.tryAcquire("first")).isFalse();
+		assertThat(rateLimiter.tryAcquire("second")).isTrue();
+	}
+
+	@Test
+	void testSubmitRejectedByGlobalLimitTakesNoUserToken() {
+		var rateLimiter = rateLimiter(new Limit(2, 1), new Limit(1, 1), null);
+
+		assertThat(rateLimiter.tryAcquire("first")).isTrue();
+		assertThat(rateLimiter.tryAcquire("second")).isFalse();
+
+		// The global limit has room again, and so has the second user, since its rejected submit was given back
+		now.addAndGet(500 * MILLIS);
+		assertThat(rateLimiter.tryAcquire("second")).isTrue();
+	}
+
+	@Test
+	void testUsersAreLimitedByTheirOwnLimit() {
+		var rateLimiter = rateLimiter(null, new Limit(1, 1), Map.of("bulk", new Limit(1, 3)));
+
+		assertThat(rateLimiter.tryAcquire("bulk")).isTrue();
+		assertThat(rateLimiter.tryAcquire("bulk")).isTrue();
+		assertThat(rateLimiter.tryAcquire("bulk")).isTrue();
+		assertThat(rateLimiter.tryAcquire("bulk")).isFalse();
+		assertThat(rateLimiter.tryAcquire("other")).isTrue();
+		assertThat(rateLimiter.tryAcquire("other")).isFalse();
+	}
+
+	@Test
+	void testSessionsNotLoggedInShareLimit() {
+		var rateLimiter = rateLimiter(null, new Limit(1, 1), null);
+
+		assertThat(rateLimiter.tryAcquire(null)).isTrue();
+		assertThat(rateLimiter.tryAcquire(null)).isFalse();
+	}
+
+	@Test
+	void testNoLimits() {
+		var rateLimiter = rateLimiter(null, null, null);
+
+		for (var i = 0; i < 1000; i++) {
+			assertThat(rateLimiter.tryAcquire("user")).isTrue();
+		}
+		assertThat(rateLimiter.reserve("user")).isZero();
+	}
+
+	@Test
+	void testReserveReturnsLongestWait() {
+		var rateLimiter = rateLimiter(new Limit(4, 1), new Limit(10, 1), null);
+
+		assertThat(rateLimiter.reserve("user")).isZero();
+		assertThat(rateLimiter.reserve("user")).isEqualTo(250 * MILLIS);
+		assertThat(rateLimiter.reserve("user")).isEqualTo(500 * MILLIS);
+	}
+
+	private SubmitRateLimiter rateLimiter(final Limit global, final Limit perUser, final Map<String, Limit> users) {
+		return new SubmitRateLimiter(new RateLimit(RateLimit.Mode.REJECT, global, perUser, users), now::get);
+	}
+}
@@ -0,0 +1,105 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	// Any point in time will do, System.nanoTime() may well be negative
+	private final AtomicLong now = new AtomicLong(-1_234_567_890_123L);
+
+	@Test
+	void testBurstIsAvailableAtOnce() {
+		var bucket = new TokenBucket(10, 3, now::get);
+
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void testTokensAreRefilledAtRate() {
+		var bucket = new TokenBucket(10, 1, now::get);
+
+		assertThat(bucket.tryAcquire()).isTrue();
+
+		now.addAndGet(99 * MILLIS);
+		assertThat(bucket.tryAcquire()).isFalse();
+
+		now.addAndGet(MILLIS);
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void testTokensAreNeverRefilledBeyondBurst() {
+		var bucket = new TokenBucket(10, 2, now::get);
+
+		now.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void testFractionalRate() {
+		var bucket = new TokenBucket(0.5, 1, now::get);
+
+		assertThat(bucket.tryAcquire()).isTrue();
+
+		now.addAndGet(1999 * MILLIS);
+		assertThat(bucket.tryAcquire()).isFalse();
+
+		now.addAndGet(MILLIS);
+		assertThat(bucket.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void testRejectedTryAcquireTakesNoToken() {
+		var bucket = new TokenBucket(10, 1, now::get);
+
+		assertThat(bucket.tryAcquire()).isTrue();
+		for (var i = 0; i < 10; i++) {
+			assertThat(bucket.tryAcquire()).isFalse();
+		}
+
+		now.addAndGet(100 * MILLIS);
+		assertThat(bucket.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void testReserveReturnsTimeUntilTokenAvailable() {
+		var bucket = new TokenBucket(10, 2, now::get);
+
+		assertThat(bucket.reserve()).isZero();
+		assertThat(bucket.reserve()).isZero();
+		assertThat(bucket.reserve()).isEqualTo(100 * MILLIS);
+		assertThat(bucket.reserve()).isEqualTo(200 * MILLIS);
+
+		// Tokens reserved are taken, so waiting out the first doesn't make room for any more
+		now.addAndGet(100 * MILLIS);
+		assertThat(bucket.tryAcquire()).isFalse();
+
+		now.addAndGet(200 * MILLIS);
+		assertThat(bucket.reserve()).isZero();
+		assertThat(bucket.reserve()).isEqualTo(100 * MILLIS);
+	}
+
+	@Test
+	void testRefundGivesBackToken() {
+		var bucket = new TokenBucket(10, 1, now::get);
+
+		assertThat(bucket.tryAcquire()).isTrue();
+		bucket.refund();
+
+		assertThat(bucket.tryAcquire()).isTrue();
+		assertThat(bucket.tryAcquire()).isFalse();
+	}
+}
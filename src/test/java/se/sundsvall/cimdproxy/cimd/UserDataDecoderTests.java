@@ -0,0 +1,138 @@
+package se.sundsvall.cimdproxy.cimd;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.HexFormat;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class UserDataDecoderTests {
+
+	@Test
+	void testDecodeGsm7Bit() {
+		var hex = "493A283D0795C3F33C88FE06CDCB6E32885EC6D341EDF27C1E3E97E72E504C3603";
+
+		assertThat(UserDataDecoder.decodeGsm7Bit(hex(hex))).isEqualTo("It is easy to send text messages. 123");
+	}
+
+	@Test
+	void testDecodeGsm7BitDropsTrailingPadding() {
+		// Seven characters packed into seven octets, leaving a zero septet that would otherwise decode as '@'
+		assertThat(UserDataDecoder.decodeGsm7Bit(hex("61F1985C369F01"))).isEqualTo("abcdefg");
+		assertThat(UserDataDecoder.decodeGsm7Bit(hex("61F1985C369F01"))).isEqualTo(decodeWithCharset("GSM", "61F1985C369F01"));
+	}
+
+	@Test
+	void testDecodeGsm7BitIsEquivalentToCharset() {
+		var random = new Random(0);
+		for (var i = 0; i < 10_000; i++) {
+			var octets = new byte[random.nextInt(200)];
+			random.nextBytes(octets);
+			// Plenty of escapes, valid and invalid
+			for (var j = 0; j < octets.length; j++) {
+				if (random.nextInt(8) == 0) {
+					octets[j] = 0x1B;
+				}
+			}
+			var hex = HexFormat.of().formatHex(octets);
+
+			assertThat(UserDataDecoder.decodeGsm7Bit(hex(hex))).as(hex).isEqualTo(decodeWithCharset("GSM", hex));
+		}
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"48656C6C6F, Hello",
+		"C8E5ECECEF, Hello",
+		"1B65, €",
+		"1B14, ^",
+		"1B41, ' A'",
+		"001B, @",
+		"5B5C5D5E5F, ÄÖÑÜ§"
+	})
+	void testDecodeGsm8Bit(final String hex, final String expected) {
+		assertThat(UserDataDecoder.decodeGsm8Bit(hex(hex))).isEqualTo(expected);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"00480065006C006C006F", "4F60597D", "D83DDE00", "00E500E400F6"
+	})
+	void testDecodeUcs2(final String hex) {
+		assertThat(UserDataDecoder.decodeUcs2(hex(hex))).isEqualTo(new String(HexFormat.of().parseHex(hex), UTF_16BE));
+	}
+
+	@Test
+	void testDecodeUcs2IgnoresTrailingOddOctet() {
+		assertThat(UserDataDecoder.decodeUcs2(hex("004100"))).isEqualTo("A");
+	}
+
+	@Test
+	void testDecodeUcs2LongerThanReusedBuffer() {
+		var expected = "å".repeat(600);
+		var hex = HexFormat.of().formatHex(expected.getBytes(UTF_16BE));
+
+		assertThat(UserDataDecoder.decodeUcs2(hex(hex))).isEqualTo(expected);
+	}
+
+	@Test
+	void testDecodeAcceptsLowerCaseHexDigits() {
+		assertThat(UserDataDecoder.decodeUcs2(hex("00e5"))).isEqualTo("å");
+	}
+
+	@Test
+	void testDecodeStartsAtReaderIndex() {
+		var hex = hex("XX48");
+		hex.skipBytes(2);
+
+		assertThat(UserDataDecoder.decodeGsm8Bit(hex)).isEqualTo("H");
+	}
+
+	@Test
+	void testDecodeByDataCodingScheme() {
+		assertThat(UserDataDecoder.decode(DataCodingScheme.of(0x00), hex("C8329BFD06"))).isEqualTo("Hello");
+		assertThat(UserDataDecoder.decode(DataCodingScheme.of(0xF4), hex("48656C6C6F"))).isEqualTo("Hello");
+		assertThat(UserDataDecoder.decode(DataCodingScheme.of(0x08), hex("00480065006C006C006F"))).isEqualTo("Hello");
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {
+		0x0C, 0x20, 0x2C, 0x80
+	})
+	void testDecodeUnsupportedDataCodingScheme(final int dataCodingScheme) {
+		assertThat(UserDataDecoder.decode(DataCodingScheme.of(dataCodingScheme), hex("48656C6C6F"))).isNull();
+	}
+
+	@Test
+	void testDecodeInvalidHex() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> UserDataDecoder.decodeGsm8Bit(hex("486")))
+			.withMessage("Odd number of hex digits: 3");
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> UserDataDecoder.decodeGsm8Bit(hex("48G5")))
+			.withMessage("Invalid hex digit at 2");
+	}
+
+	private static ByteBuf hex(final String hex) {
+		return Unpooled.copiedBuffer(hex, US_ASCII);
+	}
+
+	private static String decodeWithCharset(final String charsetName, final String hex) {
+		try {
+			return Charset.forName(charsetName).newDecoder().decode(ByteBuffer.wrap(HexFormat.of().parseHex(hex))).toString();
+		} catch (final CharacterCodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package se.sundsvall.cimdproxy.configuration;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CIMDPropertiesTests {
+
+	private static ValidatorFactory validatorFactory;
+	private static Validator validator;
+
+	@BeforeAll
+	static void setUp() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+	}
+
+	@AfterAll
+	static void tearDown() {
+		validatorFactory.close();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {
+		0, 1, 16
+	})
+	void testMaxInFlightWithinSubmitWindow(final int maxInFlight) {
+		assertThat(validator.validate(properties(16, maxInFlight))).isEmpty();
+	}
+
+	@Test
+	void testMaxInFlightGreaterThanSubmitWindow() {
+		assertThat(validator.validate(properties(16, 17)))
+			.extracting(ConstraintViolation::getMessage)
+			.containsExactly("backpressure.max-in-flight must not be greater than submit.window-size");
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = {
+		32, 64
+	})
+	void testWriteBufferLowWatermarkWithinHighWatermark(final long lowWatermarkKilobytes) {
+		assertThat(validator.validate(backpressure(lowWatermarkKilobytes, 64))).isEmpty();
+	}
+
+	@Test
+	void testWriteBufferLowWatermarkGreaterThanHighWatermark() {
+		assertThat(validator.validate(backpressure(65, 64)))
+			.extracting(ConstraintViolation::getMessage)
+			.containsExactly("backpressure.write-buffer-low-watermark must not be greater than backpressure.write-buffer-high-watermark");
+	}
+
+	@Test
+	void testPositiveSummaryInterval() {
+		assertThat(validator.validate(logging(Duration.ofSeconds(1)))).isEmpty();
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = {
+		0, -1
+	})
+	void testNonPositiveSummaryInterval(final long seconds) {
+		assertThat(validator.validate(logging(Duration.ofSeconds(seconds))))
+			.extracting(ConstraintViolation::getMessage)
+			.containsExactly("logging.summary-interval must be positive");
+	}
+
+	private static CIMDProperties properties(final int windowSize, final int maxInFlight) {
+		return new CIMDProperties(9971, new CIMDProperties.SSL(false), true, null, new CIMDProperties.Submit(windowSize), CIMDProperties.Transport.AUTO,
+			null, null, null, new CIMDProperties.Backpressure(DataSize.ofKilobytes(32), DataSize.ofKilobytes(64), maxInFlight), null, null);
+	}
+
+	private static CIMDProperties.Backpressure backpressure(final long lowWatermarkKilobytes, final long highWatermarkKilobytes) {
+		return new CIMDProperties.Backpressure(DataSize.ofKilobytes(lowWatermarkKilobytes), DataSize.ofKilobytes(highWatermarkKilobytes), 0);
+	}
+
+	private static CIMDProperties.Logging logging(final Duration summaryInterval) {
+		return new CIMDProperties.Logging(CIMDProperties.Logging.Mode.SUMMARY, 0, summaryInterval, new CIMDProperties.Logging.Async(false, 8192, false));
+	}
+}
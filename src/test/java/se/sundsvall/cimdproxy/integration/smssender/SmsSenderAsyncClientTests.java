@@ -0,0 +1,146 @@
+package se.sundsvall.cimdproxy.integration.smssender;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import generated.se.sundsvall.smssender.SendSmsRequest;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SmsSenderAsyncClientTests {
+
+	private static final String MUNICIPALITY_ID = "1984";
+
+	private final AtomicInteger tokenRequests = new AtomicInteger();
+	private final List<String> authorizations = new CopyOnWriteArrayList<>();
+	private final List<String> queries = new CopyOnWriteArrayList<>();
+	private volatile int smsStatus = 200;
+	private volatile boolean rejectFirstToken;
+
+	private HttpServer server;
+	private SmsSenderAsyncClient client;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/token", exchange -> respond(exchange, 200,
+			"{\"access_token\": \"token-%d\", \"token_type\": \"bearer\", \"expires_in\": 3600}".formatted(tokenRequests.incrementAndGet())));
+		server.createContext("/" + MUNICIPALITY_ID + "/send/sms", this::sendSms);
+		server.start();
+
+		var baseUrl = "http://localhost:" + server.getAddress().getPort();
+		var properties = new SmsSenderIntegrationProperties(baseUrl, MUNICIPALITY_ID,
+			new SmsSenderIntegrationProperties.OAuth2(baseUrl + "/token", "clientId", "clientSecret", "client_credentials"),
+			new SmsSenderIntegrationProperties.Sms("Sundsvall"), Duration.ofSeconds(5), Duration.ofSeconds(5), null,
+			new SmsSenderIntegrationProperties.Async(true, false, 200));
+
+		client = new SmsSenderAsyncClient(properties, CircuitBreakerRegistry.ofDefaults(), JsonMapper.builder().build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		client.destroy();
+		server.stop(0);
+	}
+
+	@Test
+	void testSendSms() {
+		var response = client.sendSms(MUNICIPALITY_ID, request()).join();
+		assertThat(response.getSent()).isTrue();
+
+		response = client.sendSms(MUNICIPALITY_ID, request()).join();
+		assertThat(response.getSent()).isTrue();
+
+		// The token is fetched once, and reused
+		assertThat(tokenRequests).hasValue(1);
+		assertThat(authorizations).containsExactly("Bearer token-1", "Bearer token-1");
+		assertThat(queries).containsOnly("flash=true");
+	}
+
+	@Test
+	void testSendSmsFetchesNewTokenWhenRejected() {
+		rejectFirstToken = true;
+
+		var response = client.sendSms(MUNICIPALITY_ID, request()).join();
+		assertThat(response.getSent()).isTrue();
+
+		assertThat(tokenRequests).hasValue(2);
+		assertThat(authorizations).containsExactly("Bearer token-1", "Bearer token-2");
+	}
+
+	@Test
+	void testSendSmsWhenSmsSenderRespondsWithError() {
+		smsStatus = 500;
+
+		assertThatExceptionOfType(CompletionException.class)
+			.isThrownBy(() -> client.sendSms(MUNICIPALITY_ID, request()).join())
+			.withCauseInstanceOf(IOException.class);
+	}
+
+	@Test
+	void testSendSmsWhenSmsSenderRejectsRequest() {
+		smsStatus = 400;
+
+		assertThatExceptionOfType(CompletionException.class)
+			.isThrownBy(() -> client.sendSms(MUNICIPALITY_ID, request()).join())
+			.withCauseInstanceOf(SmsSenderRejectedException.class);
+	}
+
+	@ParameterizedTest
+	@CsvSource({
+		"400, true",
+		"404, true",
+		"422, true",
+		"401, false",
+		"408, false",
+		"429, false",
+		"500, false",
+		"503, false"
+	})
+	void testIsRejection(final int statusCode, final boolean rejection) {
+		assertThat(SmsSenderRejectedException.isRejection(statusCode)).isEqualTo(rejection);
+	}
+
+	private void sendSms(final HttpExchange exchange) throws IOException {
+		var authorization = exchange.getRequestHeaders().getFirst("Authorization");
+		authorizations.add(authorization);
+		queries.add(exchange.getRequestURI().getQuery());
+
+		if (rejectFirstToken && "Bearer token-1".equals(authorization)) {
+			respond(exchange, 401, "");
+		} else {
+			respond(exchange, smsStatus, "{\"sent\": true}");
+		}
+	}
+
+	private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+		try (exchange) {
+			var bytes = body.getBytes(UTF_8);
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+			if (bytes.length > 0) {
+				exchange.getResponseBody().write(bytes);
+			}
+		}
+	}
+
+	private static SendSmsRequest request() {
+		return new SendSmsRequest().mobileNumber("+46701740605").message("someMessage");
+	}
+}
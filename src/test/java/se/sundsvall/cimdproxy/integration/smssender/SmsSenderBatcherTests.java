@@ -0,0 +1,168 @@
+package se.sundsvall.cimdproxy.integration.smssender;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmsSenderBatcherTests {
+
+	@Test
+	void testEachSmsIsCompletedWithItsOwnResult() throws Exception {
+		try (var batcher = new SmsSenderBatcher(batch(Duration.ofMillis(10), 50, 100),
+			(destinationNumber, message) -> "ok".equals(message))) {
+
+			var sent = batcher.submit("0701740605", "ok");
+			var notSent = batcher.submit("0701740606", "not ok");
+
+			assertThat(sent.get(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(notSent.get(5, TimeUnit.SECONDS)).isFalse();
+		}
+	}
+
+	@Test
+	void testFullBatchIsSentWithoutLingering() throws Exception {
+		var sentMessages = Collections.synchronizedList(new ArrayList<String>());
+		var release = new CountDownLatch(1);
+
+		try (var batcher = new SmsSenderBatcher(batch(Duration.ofSeconds(10), 3, 100), (destinationNumber, message) -> {
+			sentMessages.add(message);
+			await(release);
+			return true;
+		})) {
+			var results = new ArrayList<CompletableFuture<Boolean>>();
+			for (var i = 0; i < 3; i++) {
+				results.add(batcher.submit("070174060" + i, "message " + i));
+			}
+
+			// A full batch is sent right away, without waiting for the (long) linger time to pass
+			waitFor(() -> sentMessages.size() == 3);
+			release.countDown();
+
+			CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+			assertThat(results).allSatisfy(result -> assertThat(result).isCompletedWithValue(true));
+		}
+	}
+
+	@Test
+	void testSmsBeyondMaxInFlightAreLeftQueuedAndThenRejected() throws Exception {
+		var sentMessages = Collections.synchronizedList(new ArrayList<String>());
+		var release = new CountDownLatch(1);
+
+		try (var batcher = new SmsSenderBatcher(batch(Duration.ofMillis(1), 50, 2, 2), (destinationNumber, message) -> {
+			sentMessages.add(message);
+			await(release);
+			return true;
+		})) {
+			var results = new ArrayList<CompletableFuture<Boolean>>();
+			results.add(batcher.submit("0701740601", "message 1"));
+			results.add(batcher.submit("0701740602", "message 2"));
+			waitFor(() -> sentMessages.size() == 2);
+
+			// Both permits are taken, so further SMS stay queued until the queue is full
+			results.add(batcher.submit("0701740603", "message 3"));
+			results.add(batcher.submit("0701740604", "message 4"));
+			var rejected = batcher.submit("0701740605", "message 5");
+
+			assertThat(rejected).failsWithin(Duration.ZERO).withThrowableThat().withCauseInstanceOf(RejectedExecutionException.class);
+			Thread.sleep(50);
+			assertThat(sentMessages).containsExactly("message 1", "message 2");
+
+			release.countDown();
+
+			CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+			assertThat(results).allSatisfy(result -> assertThat(result).isCompletedWithValue(true));
+			assertThat(sentMessages).hasSize(4);
+		}
+	}
+
+	@Test
+	void testSubmitIsRejectedOnceClosed() throws Exception {
+		var batcher = new SmsSenderBatcher(batch(Duration.ofMillis(10), 50, 100), (destinationNumber, message) -> true);
+		batcher.close();
+
+		var result = batcher.submit("0701740605", "message");
+
+		assertThat(result).failsWithin(Duration.ZERO).withThrowableThat().withCauseInstanceOf(RejectedExecutionException.class);
+	}
+
+	@Test
+	void testCloseSendsQueuedSms() throws Exception {
+		CompletableFuture<Boolean> result;
+
+		try (var batcher = new SmsSenderBatcher(batch(Duration.ofMillis(50), 50, 100), (destinationNumber, message) -> true)) {
+			result = batcher.submit("0701740605", "message");
+		}
+
+		assertThat(result).isCompletedWithValue(true);
+	}
+
+	@Test
+	void testSmsSubmittedWhileClosingAreSentOrRejected() throws Exception {
+		var batcher = new SmsSenderBatcher(batch(Duration.ofMillis(1), 50, 10_000), (destinationNumber, message) -> true);
+		var results = Collections.synchronizedList(new ArrayList<CompletableFuture<Boolean>>());
+		var started = new CountDownLatch(4);
+
+		var submitters = new ArrayList<Thread>();
+		for (var i = 0; i < 4; i++) {
+			submitters.add(Thread.ofPlatform().start(() -> {
+				started.countDown();
+				for (var j = 0; j < 1_000; j++) {
+					results.add(batcher.submit("0701740605", "message"));
+				}
+			}));
+		}
+		started.await();
+		batcher.close();
+		for (var submitter : submitters) {
+			submitter.join();
+		}
+
+		// None are left hanging, whichever side of the close they ended up on
+		assertThat(results).hasSize(4_000).allSatisfy(result -> assertThat(result).satisfiesAnyOf(
+			sent -> assertThat(sent).isCompletedWithValue(true),
+			rejected -> assertThat(rejected).failsWithin(Duration.ZERO).withThrowableThat().withCauseInstanceOf(RejectedExecutionException.class)));
+	}
+
+	@Test
+	void testSenderFailureCompletesSmsExceptionally() throws Exception {
+		try (var batcher = new SmsSenderBatcher(batch(Duration.ofMillis(10), 50, 100), (destinationNumber, message) -> {
+			throw new IllegalStateException("dummy");
+		})) {
+			var result = batcher.submit("0701740605", "message");
+
+			assertThat(result).failsWithin(Duration.ofSeconds(5)).withThrowableThat().withCauseInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	private static SmsSenderIntegrationProperties.Batch batch(final Duration linger, final int maxSize, final int maxPending) {
+		return batch(linger, maxSize, maxPending, 200);
+	}
+
+	private static SmsSenderIntegrationProperties.Batch batch(final Duration linger, final int maxSize, final int maxPending, final int maxInFlight) {
+		return new SmsSenderIntegrationProperties.Batch(true, linger, maxSize, maxPending, maxInFlight);
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+		var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+}
@@ -2,18 +2,32 @@ package se.sundsvall.cimdproxy.integration.smssender;
 
 import generated.se.sundsvall.smssender.SendSmsRequest;
 import generated.se.sundsvall.smssender.SendSmsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.SendResult;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.OUTCOME_ERROR;
+import static se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.OUTCOME_NOT_SENT;
+import static se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.OUTCOME_SENT;
+import static se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.REQUESTS_TIMER_NAME;
 
 @ExtendWith(MockitoExtension.class)
 class SmsSenderIntegrationTests {
@@ -24,17 +38,24 @@ class SmsSenderIntegrationTests {
 	private SmsSenderIntegrationProperties.Sms mockSms;
 	@Mock
 	private SmsSenderClient mockSmsSenderClient;
+	@Mock
+	private SmsSenderAsyncClient mockSmsSenderAsyncClient;
+
+	private SmsSenderIntegrationProperties smsSenderIntegrationProperties;
 
+	private MeterRegistry meterRegistry;
 	private SmsSenderIntegration smsSenderIntegration;
 
 	@BeforeEach
 	void setUp() {
 		when(mockSms.from()).thenReturn("SomeSender");
 
-		var smsSenderIntegrationProperties = new SmsSenderIntegrationProperties(null, MUNICIPALITY_ID, null, mockSms, null, null);
+		smsSenderIntegrationProperties = new SmsSenderIntegrationProperties(null, MUNICIPALITY_ID, null, mockSms, null, null, null,
+			new SmsSenderIntegrationProperties.Async(false, true, 1));
 
+		meterRegistry = new SimpleMeterRegistry();
 		smsSenderIntegration = new SmsSenderIntegration(smsSenderIntegrationProperties,
-			mockSmsSenderClient);
+			mockSmsSenderClient, Optional.empty(), meterRegistry);
 	}
 
 	@Test
@@ -44,6 +65,7 @@ class SmsSenderIntegrationTests {
 
 		var result = smsSenderIntegration.sendSms("0701740605", "someMessage");
 		assertThat(result).isTrue();
+		assertThat(requestCount(OUTCOME_SENT)).isOne();
 
 		verify(mockSms, times(1)).from();
 		verify(mockSmsSenderClient, times(1)).sendSms(anyString(), any(SendSmsRequest.class));
@@ -56,6 +78,7 @@ class SmsSenderIntegrationTests {
 
 		var result = smsSenderIntegration.sendSms("0701740605", "someMessage");
 		assertThat(result).isFalse();
+		assertThat(requestCount(OUTCOME_NOT_SENT)).isOne();
 
 		verify(mockSms, times(1)).from();
 		verify(mockSmsSenderClient, times(1)).sendSms(anyString(), any(SendSmsRequest.class));
@@ -68,8 +91,89 @@ class SmsSenderIntegrationTests {
 
 		var result = smsSenderIntegration.sendSms("0701740605", "someMessage");
 		assertThat(result).isFalse();
+		assertThat(requestCount(OUTCOME_ERROR)).isOne();
 
 		verify(mockSms, times(1)).from();
 		verify(mockSmsSenderClient, times(1)).sendSms(anyString(), any(SendSmsRequest.class));
 	}
+
+	@Test
+	void testSendSmsWithResult() {
+		when(mockSmsSenderClient.sendSms(anyString(), any(SendSmsRequest.class)))
+			.thenReturn(new SendSmsResponse().sent(true))
+			.thenReturn(new SendSmsResponse().sent(false))
+			.thenThrow(new SmsSenderRejectedException(400, null))
+			.thenThrow(new RuntimeException("dummy"));
+
+		assertThat(smsSenderIntegration.sendSmsWithResult("0701740605", "someMessage")).isEqualTo(SendResult.SENT);
+		assertThat(smsSenderIntegration.sendSmsWithResult("0701740605", "someMessage")).isEqualTo(SendResult.REJECTED);
+		assertThat(smsSenderIntegration.sendSmsWithResult("0701740605", "someMessage")).isEqualTo(SendResult.REJECTED);
+		assertThat(smsSenderIntegration.sendSmsWithResult("0701740605", "someMessage")).isEqualTo(SendResult.FAILED);
+	}
+
+	@Test
+	void testSendSmsAsyncWhenRequestIsRejected() {
+		var asyncIntegration = asyncIntegration(CompletableFuture.failedFuture(new CompletionException(new SmsSenderRejectedException(400, null))));
+
+		assertThat(asyncIntegration.sendSmsWithResult("0701740605", "someMessage")).isEqualTo(SendResult.REJECTED);
+		assertThat(requestCount(OUTCOME_ERROR)).isOne();
+	}
+
+	@Test
+	void testSendSmsAsyncSuccess() {
+		var asyncIntegration = asyncIntegration(CompletableFuture.completedFuture(new SendSmsResponse().sent(true)));
+
+		var result = asyncIntegration.sendSmsAsync("0701740605", "someMessage");
+		assertThat(result).isCompletedWithValue(true);
+		assertThat(requestCount(OUTCOME_SENT)).isOne();
+
+		verify(mockSmsSenderAsyncClient, times(1)).sendSms(anyString(), any(SendSmsRequest.class));
+		verify(mockSmsSenderClient, never()).sendSms(anyString(), any(SendSmsRequest.class));
+	}
+
+	@Test
+	void testSendSmsAsyncWhenClientFails() {
+		var asyncIntegration = asyncIntegration(CompletableFuture.failedFuture(new IOException("dummy")));
+
+		var result = asyncIntegration.sendSms("0701740605", "someMessage");
+		assertThat(result).isFalse();
+		assertThat(requestCount(OUTCOME_ERROR)).isOne();
+
+		verify(mockSmsSenderAsyncClient, times(1)).sendSms(anyString(), any(SendSmsRequest.class));
+		verify(mockSmsSenderClient, never()).sendSms(anyString(), any(SendSmsRequest.class));
+	}
+
+	@Test
+	void testSendSmsAsyncIsRejectedWhenTooManyInFlight() {
+		var response = new CompletableFuture<SendSmsResponse>();
+		var asyncIntegration = asyncIntegration(response);
+
+		var first = asyncIntegration.sendSmsAsync("0701740605", "someMessage");
+		var rejected = asyncIntegration.sendSmsAsync("0701740606", "someMessage");
+
+		assertThat(first).isNotDone();
+		assertThat(rejected).isCompletedExceptionally();
+		assertThat(rejected).failsWithin(Duration.ZERO).withThrowableThat().withCauseInstanceOf(RejectedExecutionException.class);
+
+		// The permit is released once the first SMS is sent
+		response.complete(new SendSmsResponse().sent(true));
+		assertThat(first).isCompletedWithValue(true);
+		assertThat(asyncIntegration.sendSmsAsync("0701740607", "someMessage")).isCompletedWithValue(true);
+
+		verify(mockSmsSenderAsyncClient, times(2)).sendSms(anyString(), any(SendSmsRequest.class));
+	}
+
+	private SmsSenderIntegration asyncIntegration(final CompletableFuture<SendSmsResponse> response) {
+		when(mockSmsSenderAsyncClient.sendSms(anyString(), any(SendSmsRequest.class))).thenReturn(response);
+
+		var asyncIntegration = new SmsSenderIntegration(smsSenderIntegrationProperties, mockSmsSenderClient,
+			Optional.of(mockSmsSenderAsyncClient), meterRegistry);
+		assertThat(asyncIntegration.isAsyncEnabled()).isTrue();
+
+		return asyncIntegration;
+	}
+
+	private long requestCount(final String outcome) {
+		return meterRegistry.get(REQUESTS_TIMER_NAME).tag("outcome", outcome).timer().count();
+	}
 }
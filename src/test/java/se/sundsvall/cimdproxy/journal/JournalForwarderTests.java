@@ -0,0 +1,185 @@
+package se.sundsvall.cimdproxy.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.cimdproxy.integration.smssender.SmsSenderIntegration.SendResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class JournalForwarderTests {
+
+	@TempDir
+	private Path directory;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void testJournaledSubmitsAreForwardedAndCheckpointed() throws Exception {
+		var forwarded = Collections.synchronizedList(new ArrayList<String>());
+
+		try (var journal = new SubmitJournal(properties());
+			var ignored = new JournalForwarder(journal, parkedJournal(), (destinationAddress, content) -> forward(forwarded, content), forwarder(4, 1),
+				meterRegistry)) {
+
+			for (var i = 0; i < 20; i++) {
+				journal.append("+46701740605", "message " + i);
+			}
+
+			waitFor(() -> forwarded.size() == 20);
+			waitFor(() -> journal.read(journal.checkpoint()) == null);
+		}
+
+		assertThat(forwarded).hasSize(20).doesNotHaveDuplicates();
+	}
+
+	@Test
+	void testFailedSubmitsAreRetried() throws Exception {
+		var attempts = new AtomicInteger();
+
+		try (var journal = new SubmitJournal(properties());
+			var ignored = new JournalForwarder(journal, parkedJournal(),
+				(destinationAddress, content) -> attempts.incrementAndGet() >= 3 ? SendResult.SENT : SendResult.FAILED, forwarder(1, 5), meterRegistry)) {
+
+			journal.append("+46701740605", "message");
+
+			waitFor(() -> journal.read(journal.checkpoint()) == null);
+		}
+
+		assertThat(attempts).hasValue(3);
+	}
+
+	@Test
+	void testSubmitsAreParkedAfterMaxAttempts() throws Exception {
+		var attempts = new AtomicInteger();
+
+		try (var journal = new SubmitJournal(properties());
+			var parkedJournal = parkedJournal();
+			var ignored = new JournalForwarder(journal, parkedJournal, (destinationAddress, content) -> {
+				attempts.incrementAndGet();
+				return SendResult.FAILED;
+			}, forwarder(1, 3), meterRegistry)) {
+
+			journal.append("+46701740605", "message");
+
+			waitFor(() -> journal.read(journal.checkpoint()) == null);
+
+			assertThat(parkedJournal.read(parkedJournal.checkpoint()).content()).isEqualTo("message");
+		}
+
+		assertThat(attempts).hasValue(3);
+		assertThat(parked(JournalForwarder.REASON_MAX_ATTEMPTS)).isOne();
+		assertThat(parked(JournalForwarder.REASON_REJECTED)).isZero();
+	}
+
+	@Test
+	void testRejectedSubmitIsParkedAndFollowingSubmitsForwarded() throws Exception {
+		var forwarded = Collections.synchronizedList(new ArrayList<String>());
+		var rejections = new AtomicInteger();
+
+		try (var journal = new SubmitJournal(properties());
+			var parkedJournal = parkedJournal();
+			var ignored = new JournalForwarder(journal, parkedJournal, (destinationAddress, content) -> {
+				if ("rejected".equals(content)) {
+					rejections.incrementAndGet();
+					return SendResult.REJECTED;
+				}
+				return forward(forwarded, content);
+			}, forwarder(2, 100), meterRegistry)) {
+
+			journal.append("+46701740605", "rejected");
+			for (var i = 0; i < 10; i++) {
+				journal.append("+46701740605", "message " + i);
+			}
+
+			waitFor(() -> forwarded.size() == 10);
+			waitFor(() -> journal.read(journal.checkpoint()) == null);
+
+			var parkedEntry = parkedJournal.read(parkedJournal.checkpoint());
+			assertThat(parkedEntry.content()).isEqualTo("rejected");
+			assertThat(parkedJournal.read(parkedEntry.next())).isNull();
+		}
+
+		// Not retried
+		assertThat(rejections).hasValue(1);
+		assertThat(parked(JournalForwarder.REASON_REJECTED)).isOne();
+		assertThat(parked(JournalForwarder.REASON_MAX_ATTEMPTS)).isZero();
+	}
+
+	@Test
+	void testCheckpointIsMovedAgainWhenFailing() throws Exception {
+		try (var journal = spy(new SubmitJournal(properties()))) {
+			doThrow(new IOException("Disk full")).doCallRealMethod().when(journal).moveCheckpoint(any());
+
+			try (var ignored = new JournalForwarder(journal, parkedJournal(), (destinationAddress, content) -> SendResult.SENT, forwarder(1, 1), meterRegistry)) {
+				journal.append("+46701740605", "message");
+
+				waitFor(() -> journal.read(journal.checkpoint()) == null);
+			}
+
+			verify(journal, atLeast(2)).moveCheckpoint(any());
+		}
+	}
+
+	@Test
+	void testSubmitsNotForwardedAreReplayedOnRestart() throws Exception {
+		try (var journal = new SubmitJournal(properties())) {
+			journal.append("+46701740605", "message");
+		}
+
+		List<String> forwarded = Collections.synchronizedList(new ArrayList<>());
+		try (var journal = new SubmitJournal(properties());
+			var ignored = new JournalForwarder(journal, parkedJournal(), (destinationAddress, content) -> forward(forwarded, content), forwarder(1, 1),
+				meterRegistry)) {
+
+			waitFor(() -> forwarded.size() == 1);
+		}
+
+		assertThat(forwarded).containsExactly("message");
+	}
+
+	private JournalProperties properties() {
+		return new JournalProperties(true, directory, DataSize.ofKilobytes(1), JournalProperties.FsyncPolicy.NEVER, Duration.ofSeconds(1),
+			forwarder(1, 1));
+	}
+
+	private SubmitJournal parkedJournal() throws IOException {
+		return new SubmitJournal(properties().parked());
+	}
+
+	private static JournalProperties.Forwarder forwarder(final int concurrency, final int maxAttempts) {
+		return new JournalProperties.Forwarder(concurrency, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(10));
+	}
+
+	private static SendResult forward(final List<String> forwarded, final String content) {
+		forwarded.add(content);
+		return SendResult.SENT;
+	}
+
+	private double parked(final String reason) {
+		return meterRegistry.get(JournalForwarder.PARKED_COUNTER).tag("reason", reason).counter().count();
+	}
+
+	private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+		var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+}
@@ -0,0 +1,150 @@
+package se.sundsvall.cimdproxy.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SubmitJournalTests {
+
+	@TempDir
+	private Path directory;
+
+	@Test
+	void testAppendedSubmitsAreReadBackInOrder() throws Exception {
+		try (var journal = new SubmitJournal(properties(DataSize.ofKilobytes(64)))) {
+			journal.append("+46701740605", "first");
+			journal.append("+46701740606", "andra meddelandet, med åäö");
+
+			var entries = readAll(journal, journal.checkpoint());
+
+			assertThat(entries).extracting(JournalEntry::destinationAddress, JournalEntry::content)
+				.containsExactly(
+					org.assertj.core.groups.Tuple.tuple("+46701740605", "first"),
+					org.assertj.core.groups.Tuple.tuple("+46701740606", "andra meddelandet, med åäö"));
+		}
+	}
+
+	@Test
+	void testReadReturnsNullWhenNothingHasBeenAppended() throws Exception {
+		try (var journal = new SubmitJournal(properties(DataSize.ofKilobytes(64)))) {
+			assertThat(journal.read(journal.checkpoint())).isNull();
+			assertThat(journal.awaitAppend(journal.checkpoint(), 10, TimeUnit.MILLISECONDS)).isFalse();
+
+			journal.append("+46701740605", "message");
+
+			assertThat(journal.awaitAppend(journal.checkpoint(), 10, TimeUnit.MILLISECONDS)).isTrue();
+		}
+	}
+
+	@Test
+	void testSubmitsSpanningSegmentsAreReadBack() throws Exception {
+		try (var journal = new SubmitJournal(properties(DataSize.ofBytes(100)))) {
+			for (var i = 0; i < 10; i++) {
+				journal.append("+4670174060" + i, "message " + i);
+			}
+
+			var entries = readAll(journal, journal.checkpoint());
+
+			assertThat(entries).extracting(JournalEntry::content)
+				.containsExactly("message 0", "message 1", "message 2", "message 3", "message 4",
+					"message 5", "message 6", "message 7", "message 8", "message 9");
+			assertThat(segmentFiles()).hasSizeGreaterThan(1);
+		}
+	}
+
+	@Test
+	void testSubmitsAfterCheckpointAreReplayedOnRestart() throws Exception {
+		try (var journal = new SubmitJournal(properties(DataSize.ofBytes(100)))) {
+			for (var i = 0; i < 10; i++) {
+				journal.append("+4670174060" + i, "message " + i);
+			}
+
+			var entries = readAll(journal, journal.checkpoint());
+			journal.moveCheckpoint(entries.get(5).position());
+		}
+
+		try (var journal = new SubmitJournal(properties(DataSize.ofBytes(100)))) {
+			journal.append("+46701740610", "message 10");
+
+			assertThat(readAll(journal, journal.checkpoint())).extracting(JournalEntry::content)
+				.containsExactly("message 5", "message 6", "message 7", "message 8", "message 9", "message 10");
+		}
+	}
+
+	@Test
+	void testMovingCheckpointDeletesForwardedSegments() throws Exception {
+		try (var journal = new SubmitJournal(properties(DataSize.ofBytes(100)))) {
+			for (var i = 0; i < 10; i++) {
+				journal.append("+4670174060" + i, "message " + i);
+			}
+			var entries = readAll(journal, journal.checkpoint());
+
+			journal.moveCheckpoint(entries.getLast().next());
+
+			assertThat(segmentFiles()).hasSize(1);
+			assertThat(journal.read(journal.checkpoint())).isNull();
+		}
+	}
+
+	@Test
+	void testIncompleteRecordIsDiscardedOnRestart() throws Exception {
+		try (var journal = new SubmitJournal(properties(DataSize.ofKilobytes(64)))) {
+			journal.append("+46701740605", "first");
+		}
+
+		// Simulate a crash in the middle of writing a second record, i.e. a length with a bad checksum
+		var segment = segmentFiles().getFirst();
+		var bytes = Files.readAllBytes(segment);
+		var end = 8 + 2 + "+46701740605".length() + "first".length();
+		bytes[end + 3] = 20;
+		bytes[end + 8] = 42;
+		Files.write(segment, bytes);
+
+		try (var journal = new SubmitJournal(properties(DataSize.ofKilobytes(64)))) {
+			journal.append("+46701740606", "second");
+
+			assertThat(readAll(journal, journal.checkpoint())).extracting(JournalEntry::content)
+				.containsExactly("first", "second");
+		}
+	}
+
+	@Test
+	void testSubmitTooLargeForSegmentIsRejected() throws Exception {
+		try (var journal = new SubmitJournal(properties(DataSize.ofBytes(32)))) {
+			assertThatExceptionOfType(IOException.class)
+				.isThrownBy(() -> journal.append("+46701740605", "a message that doesn't fit"));
+		}
+	}
+
+	private JournalProperties properties(final DataSize segmentSize) {
+		return new JournalProperties(true, directory, segmentSize, JournalProperties.FsyncPolicy.ALWAYS, Duration.ofSeconds(1),
+			new JournalProperties.Forwarder(1, 1, Duration.ofMillis(1), Duration.ofMillis(1)));
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		try (var files = Files.list(directory)) {
+			return files.filter(path -> path.toString().endsWith(SubmitJournal.SEGMENT_SUFFIX)).sorted().toList();
+		}
+	}
+
+	private static List<JournalEntry> readAll(final SubmitJournal journal, final JournalPosition from) {
+		var entries = new ArrayList<JournalEntry>();
+		var position = from;
+		for (var entry = journal.read(position); entry != null; entry = journal.read(position)) {
+			entries.add(entry);
+			position = entry.next();
+		}
+
+		return entries;
+	}
+}